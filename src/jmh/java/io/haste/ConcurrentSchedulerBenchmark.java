@@ -0,0 +1,55 @@
+package io.haste;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many threads scheduling and cancelling timers while a single driver thread moves the time. The number of
+ * scheduling threads can be changed with {@code -tg}.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ConcurrentSchedulerBenchmark {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+    private static final Runnable EMPTY_RUNNABLE = () -> {
+    };
+
+    @Param({"0.0", "0.9"})
+    double cancelRatio;
+
+    private ScheduledExecutorServiceWithMovableTime service;
+
+    @Setup(Level.Iteration)
+    public void createService() {
+        service = Haste.ScheduledExecutionService.concurrentWithFixedClock(CLOCK);
+    }
+
+    @State(Scope.Thread)
+    public static class SchedulingThread {
+
+        long counter = 0;
+    }
+
+    @Benchmark
+    @Group("scheduleWhileAdvancing")
+    @GroupThreads(7)
+    public boolean schedule(SchedulingThread thread) {
+        var future = service.schedule(EMPTY_RUNNABLE, 1 + thread.counter++ % 1000, TimeUnit.MILLISECONDS);
+        return (thread.counter % 100) < cancelRatio * 100 && future.cancel(false);
+    }
+
+    @Benchmark
+    @Group("scheduleWhileAdvancing")
+    @GroupThreads(1)
+    public long advance() {
+        service.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        return service.currentTimeMillis();
+    }
+
+}
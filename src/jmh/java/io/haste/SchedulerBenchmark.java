@@ -0,0 +1,101 @@
+package io.haste;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduling, cancelling and firing of one-shot and periodic tasks. Every operation pushes {@code queueSize} tasks
+ * through a fresh executor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SchedulerBenchmark {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+    private static final long HORIZON_IN_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final Runnable EMPTY_RUNNABLE = () -> {
+    };
+    private static final TaskRegistry REGISTRY = new TaskRegistry();
+
+    static {
+        REGISTRY.register("empty", EMPTY_RUNNABLE);
+    }
+
+    @Param({"1000", "100000"})
+    int queueSize;
+
+    @Param({"heap", "primitiveHeap", "timingWheel"})
+    String backend;
+
+    @Param({"0.0", "0.1"})
+    double periodicRatio;
+
+    @Param({"0.0", "0.9"})
+    double cancelRatio;
+
+    private long[] delays;
+    private boolean[] periodic;
+    private boolean[] cancelled;
+    private ScheduledFuture<?>[] futures;
+
+    @Setup(Level.Trial)
+    public void prepareTasks() {
+        var random = new Random(42);
+        delays = new long[queueSize];
+        periodic = new boolean[queueSize];
+        cancelled = new boolean[queueSize];
+        futures = new ScheduledFuture<?>[queueSize];
+        for (int i = 0; i < queueSize; i++) {
+            delays[i] = 1 + random.nextInt((int) HORIZON_IN_MILLIS);
+            periodic[i] = random.nextDouble() < periodicRatio;
+            cancelled[i] = random.nextDouble() < cancelRatio;
+        }
+    }
+
+    @Benchmark
+    public ScheduledExecutorServiceWithMovableTime schedule() {
+        var service = newService();
+        scheduleAll(service);
+        return service;
+    }
+
+    @Benchmark
+    public ScheduledExecutorServiceWithMovableTime scheduleCancelAndAdvance() {
+        var service = newService();
+        scheduleAll(service);
+        for (int i = 0; i < queueSize; i++) {
+            if (cancelled[i]) {
+                futures[i].cancel(false);
+            }
+        }
+        service.advanceTimeBy(HORIZON_IN_MILLIS, TimeUnit.MILLISECONDS);
+        return service;
+    }
+
+    private void scheduleAll(ScheduledExecutorServiceWithMovableTime service) {
+        for (int i = 0; i < queueSize; i++) {
+            futures[i] = periodic[i]
+                    ? service.scheduleAtFixedRate(EMPTY_RUNNABLE, delays[i], delays[i], TimeUnit.MILLISECONDS)
+                    : service.schedule(EMPTY_RUNNABLE, delays[i], TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private ScheduledExecutorServiceWithMovableTime newService() {
+        if ("timingWheel".equals(backend)) {
+            return Haste.ScheduledExecutionService.withTimingWheel(CLOCK, Duration.ofMillis(1));
+        }
+        if ("primitiveHeap".equals(backend)) {
+            return Haste.ScheduledExecutionService.withPrimitiveHeap(CLOCK, REGISTRY);
+        }
+        return Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+    }
+
+}
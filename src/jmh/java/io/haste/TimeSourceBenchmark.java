@@ -0,0 +1,70 @@
+package io.haste;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TimeSourceBenchmark {
+
+    private final MovableTimeSource movableTimeSource = Haste.TimeSource.withFixedClockFromNow();
+    private final TimeSource systemTimeSource = Haste.TimeSource.systemTimeSource();
+    private final TimeSource cachedTimeSource = Haste.TimeSource.cachedSystemTimeSource(Duration.ofMillis(1));
+    private final ScheduledExecutorServiceWithMovableTime executorService = Haste.ScheduledExecutionService.withFixedClockFromNow();
+
+    @Benchmark
+    public ZonedDateTime movableNow() {
+        return movableTimeSource.now();
+    }
+
+    @Benchmark
+    public long movableCurrentTimeMillis() {
+        return movableTimeSource.currentTimeMillis();
+    }
+
+    @Benchmark
+    public long movableEpochNanos() {
+        return movableTimeSource.epochNanos();
+    }
+
+    @Benchmark
+    public long movableAdvanceTimeBy() {
+        movableTimeSource.advanceTimeBy(1, TimeUnit.NANOSECONDS);
+        return movableTimeSource.currentTimeMillis();
+    }
+
+    @Benchmark
+    public ZonedDateTime executorNow() {
+        return executorService.now();
+    }
+
+    @Benchmark
+    public long executorCurrentTimeMillis() {
+        return executorService.currentTimeMillis();
+    }
+
+    @Benchmark
+    public ZonedDateTime systemNow() {
+        return systemTimeSource.now();
+    }
+
+    @Benchmark
+    public long systemCurrentTimeMillis() {
+        return systemTimeSource.currentTimeMillis();
+    }
+
+    @Benchmark
+    public ZonedDateTime cachedNow() {
+        return cachedTimeSource.now();
+    }
+
+    @Benchmark
+    public long cachedCurrentTimeMillis() {
+        return cachedTimeSource.currentTimeMillis();
+    }
+
+}
@@ -4,12 +4,33 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Runs immediate tasks on the calling thread or, if given, on a backing executor. The backing executor is not owned,
+ * termination only waits for the tasks handed over to it.
+ */
 class BlockingExecutorService extends AbstractExecutorService implements ExecutorService {
 
-    private boolean shutdown = false;
+    final Executor immediateExecutor;
+
+    private volatile boolean shutdown = false;
+    private final Object terminationLock = new Object();
+    private int runningTasks = 0;
+
+    BlockingExecutorService() {
+        this(null);
+    }
+
+    /**
+     * @param immediateExecutor executor running immediate tasks or null to run them on the calling thread
+     */
+    BlockingExecutorService(Executor immediateExecutor) {
+        this.immediateExecutor = immediateExecutor;
+    }
 
     @Override
     public void shutdown() {
@@ -29,21 +50,68 @@ class BlockingExecutorService extends AbstractExecutorService implements Executo
 
     @Override
     public boolean isTerminated() {
-        return isShutdown();
+        if (!isShutdown()) {
+            return false;
+        }
+        synchronized (terminationLock) {
+            return runningTasks == 0;
+        }
     }
 
     @Override
-    public boolean awaitTermination(long l, TimeUnit timeUnit) {
+    public boolean awaitTermination(long l, TimeUnit timeUnit) throws InterruptedException {
         Objects.requireNonNull(timeUnit);
         if (l < 0) throw new IllegalArgumentException();
         shutdown();
+        long deadline = System.nanoTime() + timeUnit.toNanos(l);
+        synchronized (terminationLock) {
+            while (runningTasks > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(terminationLock, remaining);
+            }
+        }
         return true;
     }
 
     @Override
     public void execute(Runnable runnable) {
-        if (!shutdown) {
+        if (shutdown) {
+            return;
+        }
+        if (immediateExecutor == null) {
             runnable.run();
+            return;
+        }
+        Objects.requireNonNull(runnable);
+        taskStarted();
+        try {
+            immediateExecutor.execute(() -> {
+                try {
+                    runnable.run();
+                } finally {
+                    taskFinished();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            taskFinished();
+            throw e;
+        }
+    }
+
+    private void taskStarted() {
+        synchronized (terminationLock) {
+            runningTasks++;
+        }
+    }
+
+    private void taskFinished() {
+        synchronized (terminationLock) {
+            if (--runningTasks == 0) {
+                terminationLock.notifyAll();
+            }
         }
     }
 }
@@ -2,56 +2,188 @@ package io.haste;
 
 import java.time.Clock;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
-import java.util.PriorityQueue;
+import java.util.Optional;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 final class BlockingScheduledExecutionService extends BlockingExecutorService implements ScheduledExecutorServiceWithMovableTime {
 
     private static final Logger LOGGER = Logger.getLogger(BlockingScheduledExecutionService.class.getName());
-    private final PriorityQueue<AbstractRunnableScheduledFuture<?>> scheduledFutures = new PriorityQueue<>();
+    private static final int DEFAULT_PRIORITY = 0;
+    private volatile TaskQueue scheduledFutures;
 
-    private final MovableTimeSource timeSource;
+    private final StandaloneMovableTimeSource timeSource;
+
+    private final AtomicLong sequenceGenerator = new AtomicLong();
+
+    private final Executor sameInstantExecutor;
+    private final List<QueuedTask> sameInstantTasks = new ArrayList<>();
+    private final List<QueuedTask> deferredTasks = new ArrayList<>();
+
+    private volatile SchedulerMetricsListener metricsListener;
+    private volatile Runnable changeObserver;
 
     BlockingScheduledExecutionService(Clock clock) {
-        Objects.requireNonNull(clock);
-        this.timeSource = new StandaloneMovableTimeSource(clock);
+        this(clock, new HeapTaskQueue());
+    }
+
+    BlockingScheduledExecutionService(Clock clock, TaskQueue taskQueue) {
+        this(clock, taskQueue, null);
+    }
+
+    /**
+     * @param sameInstantExecutor executor running tasks with the same deadline in parallel or null to run every task
+     *                            on the thread which moves the time. Requires thread-safe task queue.
+     */
+    BlockingScheduledExecutionService(Clock clock, TaskQueue taskQueue, Executor sameInstantExecutor) {
+        this(new StandaloneMovableTimeSource(clock), taskQueue, sameInstantExecutor);
+    }
+
+    BlockingScheduledExecutionService(StandaloneMovableTimeSource timeSource, TaskQueue taskQueue, Executor sameInstantExecutor) {
+        this(timeSource, taskQueue, sameInstantExecutor, null);
+    }
+
+    /**
+     * @param immediateExecutor executor running tasks submitted without a delay, e.g. by {@code invokeAll}, or null
+     *                          to run them on the submitting thread. Delayed tasks still wait for the time to move.
+     */
+    BlockingScheduledExecutionService(StandaloneMovableTimeSource timeSource, TaskQueue taskQueue, Executor sameInstantExecutor, Executor immediateExecutor) {
+        super(immediateExecutor);
+        Objects.requireNonNull(timeSource);
+        Objects.requireNonNull(taskQueue);
+        this.timeSource = timeSource;
+        this.scheduledFutures = taskQueue;
+        this.sameInstantExecutor = sameInstantExecutor;
+        taskQueue.attachTo(this);
     }
 
     @Override
     public ScheduledFuture<?> schedule(Runnable runnable, long delay, TimeUnit timeUnit) {
+        return schedule(runnable, delay, timeUnit, DEFAULT_PRIORITY);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit timeUnit) {
+        return schedule(callable, delay, timeUnit, DEFAULT_PRIORITY);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable runnable, long delay, TimeUnit timeUnit, int priority) {
         Objects.requireNonNull(runnable);
         if (delay < 0) throw new IllegalArgumentException();
         Objects.requireNonNull(timeUnit);
 
         var scheduledFuture = new ScheduledFutureWithRunnable(delay, timeUnit, runnable);
+        scheduledFuture.priority = priority;
         scheduledFutures.add(scheduledFuture);
+        afterScheduled(1);
         return scheduledFuture;
     }
 
     @Override
-    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit timeUnit) {
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit timeUnit, int priority) {
         Objects.requireNonNull(callable);
         if (delay < 0) throw new IllegalArgumentException();
         Objects.requireNonNull(timeUnit);
 
         AbstractRunnableScheduledFuture<V> scheduledFuture = new ScheduledFutureWithCallable<>(delay, timeUnit, callable);
+        scheduledFuture.priority = priority;
         scheduledFutures.add(scheduledFuture);
+        afterScheduled(1);
         return scheduledFuture;
     }
 
+    @Override
+    public CompletableFuture<Void> scheduleAsync(Runnable runnable, long delay, TimeUnit timeUnit) {
+        Objects.requireNonNull(runnable);
+        if (delay < 0) throw new IllegalArgumentException();
+        Objects.requireNonNull(timeUnit);
+
+        return scheduleCompletable(delay, timeUnit, Executors.callable(runnable, null), runnable);
+    }
+
+    @Override
+    public <V> CompletableFuture<V> scheduleAsync(Callable<V> callable, long delay, TimeUnit timeUnit) {
+        Objects.requireNonNull(callable);
+        if (delay < 0) throw new IllegalArgumentException();
+        Objects.requireNonNull(timeUnit);
+
+        return scheduleCompletable(delay, timeUnit, callable, callable);
+    }
+
+    private <V> CompletableFuture<V> scheduleCompletable(long delay, TimeUnit timeUnit, Callable<V> callable, Object task) {
+        var scheduledFuture = new CompletableScheduledFuture<>(delay, timeUnit, callable, task);
+        scheduledFuture.result.whenComplete((value, failure) -> {
+            if (scheduledFuture.result.isCancelled()) {
+                scheduledFuture.cancel(false);
+            }
+        });
+        scheduledFutures.add(scheduledFuture);
+        afterScheduled(1);
+        return scheduledFuture.result;
+    }
+
+    @Override
+    public List<ScheduledFuture<?>> scheduleAll(Collection<? extends Runnable> runnables, long[] delays, TimeUnit timeUnit) {
+        validateBatch(runnables, delays, timeUnit);
+
+        var batch = new ArrayList<ScheduledFutureWithRunnable>(runnables.size());
+        int index = 0;
+        for (Runnable runnable : runnables) {
+            batch.add(new ScheduledFutureWithRunnable(delays[index++], timeUnit, runnable));
+        }
+        scheduledFutures.addAll(batch);
+        afterScheduled(batch.size());
+        return Collections.unmodifiableList(batch);
+    }
+
+    @Override
+    public <V> List<ScheduledFuture<V>> scheduleAllCallables(Collection<? extends Callable<V>> callables, long[] delays, TimeUnit timeUnit) {
+        validateBatch(callables, delays, timeUnit);
+
+        var batch = new ArrayList<ScheduledFutureWithCallable<V>>(callables.size());
+        int index = 0;
+        for (Callable<V> callable : callables) {
+            batch.add(new ScheduledFutureWithCallable<>(delays[index++], timeUnit, callable));
+        }
+        scheduledFutures.addAll(batch);
+        afterScheduled(batch.size());
+        return Collections.unmodifiableList(batch);
+    }
+
+    private static void validateBatch(Collection<?> tasks, long[] delays, TimeUnit timeUnit) {
+        Objects.requireNonNull(tasks);
+        Objects.requireNonNull(delays);
+        Objects.requireNonNull(timeUnit);
+        if (tasks.size() != delays.length) throw new IllegalArgumentException();
+        for (Object task : tasks) {
+            Objects.requireNonNull(task);
+        }
+        for (long delay : delays) {
+            if (delay < 0) throw new IllegalArgumentException();
+        }
+    }
+
     @Override
     public ScheduledFuture<?> scheduleAtFixedRate(Runnable runnable, long initialDelay, long period, TimeUnit timeUnit) {
         Objects.requireNonNull(runnable);
         if (initialDelay < 0) throw new IllegalArgumentException();
-        if (period < 0) throw new IllegalArgumentException();
+        if (period <= 0) throw new IllegalArgumentException();
         Objects.requireNonNull(timeUnit);
 
         var scheduledFuture = new FixedRatePeriodicScheduledFutureWithRunnable(runnable, initialDelay, timeUnit, period);
         scheduledFutures.add(scheduledFuture);
+        afterScheduled(1);
         return scheduledFuture;
     }
 
@@ -59,11 +191,12 @@ final class BlockingScheduledExecutionService extends BlockingExecutorService im
     public ScheduledFuture<?> scheduleWithFixedDelay(Runnable runnable, long initialDelay, long delay, TimeUnit timeUnit) {
         Objects.requireNonNull(runnable);
         if (initialDelay < 0) throw new IllegalArgumentException();
-        if (delay < 0) throw new IllegalArgumentException();
+        if (delay <= 0) throw new IllegalArgumentException();
         Objects.requireNonNull(timeUnit);
 
         var scheduledFuture = new FixedDelayPeriodicScheduledFutureWithRunnable(runnable, initialDelay, timeUnit, delay);
         scheduledFutures.add(scheduledFuture);
+        afterScheduled(1);
         return scheduledFuture;
     }
 
@@ -77,21 +210,119 @@ final class BlockingScheduledExecutionService extends BlockingExecutorService im
         return timeSource.currentTimeMillis();
     }
 
+    @Override
+    public Instant instant() {
+        return timeSource.instant();
+    }
+
+    @Override
+    public long epochNanos() {
+        return timeSource.epochNanos();
+    }
+
+    @Override
+    public long nanoTime() {
+        return timeSource.nanoTime();
+    }
+
+    @Override
+    public Clock asClock() {
+        return new TimeSourceClock(this, timeSource.zone());
+    }
+
+    @Override
+    public int pendingTaskCount() {
+        return scheduledFutures.size() - scheduledFutures.cancelledSize();
+    }
+
+    @Override
+    public int cancelledTaskCount() {
+        return scheduledFutures.cancelledSize();
+    }
+
+    @Override
+    public void setMetricsListener(SchedulerMetricsListener listener) {
+        this.metricsListener = listener;
+    }
+
+    @Override
+    public SchedulerSnapshot snapshot() {
+        var pending = new ArrayList<SchedulerSnapshot.PendingTask>(scheduledFutures.size());
+        scheduledFutures.forEach(task -> {
+            if (!task.isCancelled()) {
+                pending.add(((AbstractRunnableScheduledFuture<?>) task).pendingTask());
+            }
+        });
+        return new SchedulerSnapshot(timeSource.epochNanos(), sequenceGenerator.get(), pending.toArray(new SchedulerSnapshot.PendingTask[0]));
+    }
+
+    @Override
+    public void restore(SchedulerSnapshot snapshot) {
+        Objects.requireNonNull(snapshot);
+
+        dropPendingTasks();
+        timeSource.setEpochNanos(snapshot.epochNanos);
+        scheduledFutures.addAll(copyTasks(snapshot));
+        sequenceGenerator.set(snapshot.nextSequence);
+    }
+
+    @Override
+    public ScheduledExecutorServiceWithMovableTime fork(SchedulerSnapshot snapshot) {
+        Objects.requireNonNull(snapshot);
+
+        var clock = Clock.fixed(EpochNanos.toInstant(snapshot.epochNanos), timeSource.zone());
+        var fork = new BlockingScheduledExecutionService(new StandaloneMovableTimeSource(clock), scheduledFutures.emptyCopy(),
+                sameInstantExecutor, immediateExecutor);
+        fork.scheduledFutures.addAll(fork.copyTasks(snapshot));
+        fork.sequenceGenerator.set(snapshot.nextSequence);
+        return fork;
+    }
+
+    private List<QueuedTask> copyTasks(SchedulerSnapshot snapshot) {
+        var copies = new ArrayList<QueuedTask>(snapshot.tasks.length);
+        for (SchedulerSnapshot.PendingTask pending : snapshot.tasks) {
+            AbstractRunnableScheduledFuture<?> copy = newFuture(pending);
+            copy.deadline = pending.deadline;
+            copy.priority = pending.priority;
+            copy.sequence = pending.sequence;
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    /**
+     * @return pending future of given task, its deadline has to be set by the caller
+     */
+    private AbstractRunnableScheduledFuture<?> newFuture(SchedulerSnapshot.PendingTask pending) {
+        switch (pending.kind) {
+            case SchedulerSnapshot.PendingTask.RUNNABLE:
+                return new ScheduledFutureWithRunnable(0, TimeUnit.NANOSECONDS, (Runnable) pending.task);
+            case SchedulerSnapshot.PendingTask.CALLABLE:
+                return new ScheduledFutureWithCallable<>(0, TimeUnit.NANOSECONDS, pending.callable);
+            case SchedulerSnapshot.PendingTask.ASYNC:
+                return new CompletableScheduledFuture<>(0, TimeUnit.NANOSECONDS, pending.callable, pending.task);
+            case SchedulerSnapshot.PendingTask.FIXED_RATE:
+                return new FixedRatePeriodicScheduledFutureWithRunnable((Runnable) pending.task, 0, TimeUnit.NANOSECONDS, pending.periodInNanos);
+            case SchedulerSnapshot.PendingTask.FIXED_DELAY:
+                return new FixedDelayPeriodicScheduledFutureWithRunnable((Runnable) pending.task, 0, TimeUnit.NANOSECONDS, pending.periodInNanos);
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * @return codec converting one-shot tasks of this executor which run a runnable from given registry
+     */
+    TaskCodec registryCodec(TaskRegistry registry) {
+        return new RegistryTaskCodec(registry);
+    }
+
     @Override
     public void advanceTimeBy(long delayTime, TimeUnit timeUnit) {
         if (delayTime < 0) throw new IllegalArgumentException();
         Objects.requireNonNull(timeUnit);
 
-        long remainingOffsetInNano = timeUnit.toNanos(delayTime);
-
-        while (!scheduledFutures.isEmpty() && nextTaskIsInRange(remainingOffsetInNano)) {
-            var task = scheduledFutures.poll();
-            long delay = task.getDelay(TimeUnit.NANOSECONDS);
-            updateClock(delay);
-            remainingOffsetInNano -= delay;
-            runTask(task);
-        }
-        updateClock(remainingOffsetInNano);
+        advanceTo(EpochNanos.plus(timeSource.epochNanos(), timeUnit.toNanos(delayTime)));
     }
 
     @Override
@@ -99,68 +330,369 @@ final class BlockingScheduledExecutionService extends BlockingExecutorService im
         advanceTimeBy(duration.toNanos(), TimeUnit.NANOSECONDS);
     }
 
-    private boolean nextTaskIsInRange(long remainingOffsetInNano) {
-        return scheduledFutures.peek().getDelay(TimeUnit.NANOSECONDS) <= remainingOffsetInNano;
+    @Override
+    public Flow.Publisher<Instant> ticks(Duration period, TickOverflowPolicy overflowPolicy) {
+        Objects.requireNonNull(period);
+
+        return new TickPublisher(this, EpochNanos.toNanosSaturated(period), overflowPolicy);
+    }
+
+    @Override
+    public Optional<ZonedDateTime> nextDeadline() {
+        QueuedTask next = scheduledFutures.peek();
+        if (next == null) {
+            return Optional.empty();
+        }
+        return Optional.of(ZonedDateTime.ofInstant(EpochNanos.toInstant(next.deadline), timeSource.zone()));
+    }
+
+    @Override
+    public boolean advanceToNextTask() {
+        QueuedTask next = scheduledFutures.peek();
+        if (next == null) {
+            return false;
+        }
+        advanceTo(next.deadline);
+        return true;
+    }
+
+    @Override
+    public int runUntilIdle(Duration timeLimit) {
+        return runUntilIdle(timeLimit, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int runUntilIdle(Duration timeLimit, int taskLimit) {
+        Objects.requireNonNull(timeLimit);
+        if (timeLimit.isNegative()) throw new IllegalArgumentException();
+        if (taskLimit < 0) throw new IllegalArgumentException();
+
+        long startTime = timeSource.epochNanos();
+        int runTasks = runTasksDueUntil(EpochNanos.plus(startTime, EpochNanos.toNanosSaturated(timeLimit)), taskLimit);
+        reportAdvanced(startTime, runTasks);
+        return runTasks;
+    }
+
+    /**
+     * Runs all tasks due until given time and moves the clock to it
+     *
+     * @param time time in epoch nanoseconds, not before the current time
+     * @return number of run tasks
+     */
+    int advanceTo(long time) {
+        long startTime = timeSource.epochNanos();
+        int runTasks = runTasksDueUntil(time, Integer.MAX_VALUE);
+        updateClock(time);
+        reportAdvanced(startTime, runTasks);
+        return runTasks;
+    }
+
+    /**
+     * @return sequence number of the next scheduled task
+     */
+    long sequenceMark() {
+        return sequenceGenerator.get();
+    }
+
+    /**
+     * Runs tasks due until given time which were scheduled before the sequence mark had been taken, tasks scheduled
+     * later are left in the queue, and moves the clock to given time
+     *
+     * @param time         time in epoch nanoseconds, not before the current time
+     * @param sequenceMark value of {@link #sequenceMark()}
+     * @return number of run tasks
+     */
+    int advanceTo(long time, long sequenceMark) {
+        long startTime = timeSource.epochNanos();
+        int runTasks = 0;
+        QueuedTask task;
+        try {
+            while ((task = scheduledFutures.pollDue(time)) != null) {
+                if (task.sequence >= sequenceMark) {
+                    deferredTasks.add(task);
+                    continue;
+                }
+                updateClock(task.deadline);
+                runTasks += runTask(task) ? 1 : 0;
+            }
+        } finally {
+            deferredTasks.removeIf(QueuedTask::isCancelled);
+            scheduledFutures.addAll(deferredTasks);
+            deferredTasks.clear();
+        }
+        updateClock(time);
+        reportAdvanced(startTime, runTasks);
+        return runTasks;
+    }
+
+    /**
+     * Moves the clock without running tasks, tasks due meanwhile are run late by the next time move
+     */
+    void moveClockTo(long time) {
+        updateClock(time);
+    }
+
+    /**
+     * Sets action run after tasks are scheduled and after shutdown, e.g. to wake up a thread driving the time
+     */
+    void setChangeObserver(Runnable observer) {
+        this.changeObserver = observer;
+    }
+
+    private void notifyChangeObserver() {
+        Runnable observer = changeObserver;
+        if (observer != null) {
+            observer.run();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        scheduledFutures.close();
+        notifyChangeObserver();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> notStarted = super.shutdownNow();
+        scheduledFutures.close();
+        notifyChangeObserver();
+        return notStarted;
+    }
+
+    /**
+     * Cancels all pending tasks and replaces the queue with an empty one, has to be called by the thread moving the time
+     */
+    void dropPendingTasks() {
+        scheduledFutures.forEach(task -> ((AbstractRunnableScheduledFuture<?>) task).drop());
+        TaskQueue previous = scheduledFutures;
+        scheduledFutures = previous.emptyCopy();
+        scheduledFutures.attachTo(this);
+        previous.close();
+    }
+
+    /**
+     * @return pending task with the earliest deadline or null
+     */
+    QueuedTask peekTask() {
+        return scheduledFutures.peek();
+    }
+
+    /**
+     * Runs tasks in deadline order, moving the clock to every deadline
+     *
+     * @return number of run tasks
+     */
+    private int runTasksDueUntil(long targetTime, int taskLimit) {
+        int runTasks = 0;
+        QueuedTask task;
+        while (runTasks < taskLimit && (task = scheduledFutures.pollDue(targetTime)) != null) {
+            updateClock(task.deadline);
+            if (sameInstantExecutor == null) {
+                runTasks += runTask(task) ? 1 : 0;
+            } else {
+                runTasks += runTasksDueWith(task);
+            }
+        }
+        return runTasks;
     }
 
-    private void runTask(RunnableScheduledFuture<?> task) {
-        if (!task.isCancelled()) {
+    private boolean runTask(QueuedTask task) {
+        if (task.isCancelled()) {
+            return false;
+        }
+        SchedulerMetricsListener listener = metricsListener;
+        if (listener == null) {
             task.run();
+        } else {
+            runMeasured(task, listener);
         }
+        return true;
     }
 
-    private void updateClock(long delay) {
-        timeSource.advanceTimeBy(delay, TimeUnit.NANOSECONDS);
+    private static void runMeasured(QueuedTask task, SchedulerMetricsListener listener) {
+        Object scheduledTask = ((AbstractRunnableScheduledFuture<?>) task).task();
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } catch (RuntimeException | Error e) {
+            listener.taskFailed(scheduledTask, e);
+            throw e;
+        } finally {
+            listener.taskRun(scheduledTask, System.nanoTime() - start);
+        }
+    }
+
+    private int runTasksDueWith(QueuedTask first) {
+        sameInstantTasks.add(first);
+        QueuedTask task;
+        while ((task = scheduledFutures.pollDue(first.deadline)) != null) {
+            sameInstantTasks.add(task);
+        }
+        try {
+            if (sameInstantTasks.size() == 1) {
+                return runTask(first) ? 1 : 0;
+            }
+            return runInParallel(sameInstantTasks);
+        } finally {
+            sameInstantTasks.clear();
+        }
     }
 
-    private abstract class AbstractRunnableScheduledFuture<V> implements RunnableScheduledFuture<V> {
+    /**
+     * @return number of tasks which have run, tasks cancelled by their peers during the batch are not counted
+     */
+    private int runInParallel(List<QueuedTask> tasks) {
+        var batch = new ParallelBatch(tasks.size());
+        var runTasks = new AtomicInteger();
+        for (QueuedTask task : tasks) {
+            Runnable run = () -> {
+                if (runTask(task)) {
+                    runTasks.incrementAndGet();
+                }
+            };
+            try {
+                sameInstantExecutor.execute(() -> batch.run(run));
+            } catch (RejectedExecutionException e) {
+                batch.run(run);
+            }
+        }
+        batch.await();
+        return runTasks.get();
+    }
 
-        final ZonedDateTime scheduledTime;
-        final long delayInNanos;
-        boolean canceled;
-        boolean done;
+    private void afterScheduled(int count) {
+        notifyChangeObserver();
+        SchedulerMetricsListener listener = metricsListener;
+        if (listener != null) {
+            listener.tasksScheduled(count, pendingTaskCount());
+        }
+    }
+
+    private void reportFailed(Object task, Throwable cause) {
+        SchedulerMetricsListener listener = metricsListener;
+        if (listener != null) {
+            listener.taskFailed(task, cause);
+        }
+    }
+
+    private void reportAdvanced(long startTime, int runTasks) {
+        SchedulerMetricsListener listener = metricsListener;
+        if (listener != null) {
+            listener.timeAdvanced(timeSource.epochNanos() - startTime, runTasks, pendingTaskCount());
+        }
+    }
+
+    private void updateClock(long time) {
+        long delay = time - timeSource.epochNanos();
+        if (delay > 0) {
+            timeSource.advanceTimeBy(delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Timeouts of waiting for a task follow the virtual time when it flows by itself. Otherwise the time is moved
+     * explicitly, possibly by the waiting thread itself later on, so they are measured in real time.
+     */
+    private long waitNanosFor(long timeoutInNanos) {
+        return timeSource.flows() ? timeSource.wallNanosFor(timeoutInNanos) : timeoutInNanos;
+    }
+
+    private abstract class AbstractRunnableScheduledFuture<V> extends QueuedTask implements RunnableScheduledFuture<V> {
+
+        volatile Throwable failure;
 
         private AbstractRunnableScheduledFuture(long delay, TimeUnit timeUnit) {
-            scheduledTime = timeSource.now();
-            delayInNanos = timeUnit.toNanos(delay);
-            this.canceled = false;
-            this.done = false;
+            super(EpochNanos.plus(timeSource.epochNanos(), timeUnit.toNanos(delay)));
+            this.sequence = sequenceGenerator.getAndIncrement();
         }
 
         @Override
         public long getDelay(TimeUnit timeUnit) {
-            Duration d = Duration.between(timeSource.now(), scheduledTime.plusNanos(delayInNanos));
-            return TimeUnit.NANOSECONDS.convert(d.toNanos(), timeUnit);
+            return timeUnit.convert(deadline - timeSource.epochNanos(), TimeUnit.NANOSECONDS);
         }
 
         @Override
         public int compareTo(Delayed delayed) {
+            if (delayed instanceof AbstractRunnableScheduledFuture) {
+                return QueuedTask.compare(this, (AbstractRunnableScheduledFuture<?>) delayed);
+            }
             return Long.compare(getDelay(TimeUnit.NANOSECONDS), delayed.getDelay(TimeUnit.NANOSECONDS));
         }
 
         @Override
         public boolean cancel(boolean b) {
-            if (done) {
+            scheduledFutures.refresh(this);
+            if (!changeState(PENDING, CANCELLED)) {
                 return false;
             }
-            canceled = true;
+            scheduledFutures.remove(this);
+            SchedulerMetricsListener listener = metricsListener;
+            if (listener != null) {
+                listener.taskCancelled();
+            }
             return true;
         }
 
         @Override
         public boolean isCancelled() {
-            return canceled;
+            return state() == CANCELLED;
         }
 
         @Override
         public boolean isDone() {
-            return done;
+            scheduledFutures.refresh(this);
+            return state() != PENDING;
         }
 
         @Override
         public boolean isPeriodic() {
             return false;
         }
+
+        /**
+         * Blocks until the task completes or is cancelled
+         */
+        final void awaitCompletion() throws InterruptedException, ExecutionException {
+            scheduledFutures.refresh(this);
+            reportCompletion(awaitDone(false, 0));
+        }
+
+        final void awaitCompletion(long timeout, TimeUnit timeUnit) throws InterruptedException, ExecutionException, TimeoutException {
+            scheduledFutures.refresh(this);
+            int state = awaitDone(true, waitNanosFor(timeUnit.toNanos(timeout)));
+            if (state == PENDING) {
+                throw new TimeoutException();
+            }
+            reportCompletion(state);
+        }
+
+        private void reportCompletion(int state) throws ExecutionException {
+            if (state == CANCELLED) {
+                throw new CancellationException();
+            }
+            if (failure != null) {
+                throw new ExecutionException(failure);
+            }
+        }
+
+        /**
+         * @return scheduled runnable or callable
+         */
+        abstract Object task();
+
+        /**
+         * @return what is needed to schedule this task again from a snapshot
+         */
+        abstract SchedulerSnapshot.PendingTask pendingTask();
+
+        /**
+         * Cancels the task without removing it from the queue, which is about to be dropped
+         */
+        void drop() {
+            changeState(PENDING, CANCELLED);
+        }
     }
 
     private class ScheduledFutureWithRunnable extends AbstractRunnableScheduledFuture<Object> {
@@ -173,26 +705,51 @@ final class BlockingScheduledExecutionService extends BlockingExecutorService im
         }
 
         @Override
-        public Object get() {
-            return new Object();
+        public Object get() throws InterruptedException, ExecutionException {
+            awaitCompletion();
+            return null;
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit timeUnit) throws InterruptedException, ExecutionException, TimeoutException {
+            awaitCompletion(timeout, timeUnit);
+            return null;
+        }
+
+        @Override
+        Object task() {
+            return runnable;
         }
 
         @Override
-        public Object get(long offset, TimeUnit timeUnit) {
-            return new Object();
+        SchedulerSnapshot.PendingTask pendingTask() {
+            return new SchedulerSnapshot.PendingTask(SchedulerSnapshot.PendingTask.RUNNABLE, runnable, null, 0, this);
         }
 
         @Override
         public void run() {
-            runnable.run();
-            done = true;
+            runRunnable();
+            changeState(PENDING, COMPLETED);
+        }
+
+        /**
+         * A failure completes the task, so waiting threads see it, and is thrown further to the thread moving the time
+         */
+        final void runRunnable() {
+            try {
+                runnable.run();
+            } catch (RuntimeException | Error e) {
+                failure = e;
+                changeState(PENDING, COMPLETED);
+                throw e;
+            }
         }
     }
 
     private class ScheduledFutureWithCallable<V> extends AbstractRunnableScheduledFuture<V> {
 
         Callable<V> callable;
-        V value;
+        volatile V value;
 
         private ScheduledFutureWithCallable(long delay, TimeUnit timeUnit, Callable<V> callable) {
             super(delay, timeUnit);
@@ -200,35 +757,119 @@ final class BlockingScheduledExecutionService extends BlockingExecutorService im
         }
 
         @Override
-        public V get() {
+        Object task() {
+            return callable;
+        }
+
+        @Override
+        SchedulerSnapshot.PendingTask pendingTask() {
+            return new SchedulerSnapshot.PendingTask(SchedulerSnapshot.PendingTask.CALLABLE, callable, callable, 0, this);
+        }
+
+        @Override
+        public V get() throws InterruptedException, ExecutionException {
+            awaitCompletion();
             return value;
         }
 
         @Override
-        public V get(long offset, TimeUnit timeUnit) {
+        public V get(long timeout, TimeUnit timeUnit) throws InterruptedException, ExecutionException, TimeoutException {
+            awaitCompletion(timeout, timeUnit);
             return value;
         }
 
+        /**
+         * An exception is reported by the future, an error is also thrown further to the thread moving the time
+         */
         @Override
         public void run() {
             try {
                 value = callable.call();
             } catch (Exception e) {
                 LOGGER.log(Level.SEVERE, e::getMessage);
+                failure = e;
+                reportFailed(callable, e);
+            } catch (Error e) {
+                failure = e;
+                throw e;
+            } finally {
+                changeState(PENDING, COMPLETED);
             }
-            done = true;
         }
     }
 
+    /**
+     * Completes its {@link CompletableFuture} when run, so dependent stages are run by the thread moving the time
+     * right after the task. A failure completes the future exceptionally instead of being thrown.
+     */
+    private class CompletableScheduledFuture<V> extends AbstractRunnableScheduledFuture<V> {
+
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        private final Callable<V> callable;
+        private final Object task;
+
+        private CompletableScheduledFuture(long delay, TimeUnit timeUnit, Callable<V> callable, Object task) {
+            super(delay, timeUnit);
+            this.callable = callable;
+            this.task = task;
+        }
+
+        @Override
+        Object task() {
+            return task;
+        }
+
+        /**
+         * A task scheduled again completes its own future, which is not visible to the caller of this one
+         */
+        @Override
+        SchedulerSnapshot.PendingTask pendingTask() {
+            return new SchedulerSnapshot.PendingTask(SchedulerSnapshot.PendingTask.ASYNC, task, callable, 0, this);
+        }
+
+        @Override
+        void drop() {
+            super.drop();
+            result.cancel(false);
+        }
+
+        @Override
+        public V get() throws InterruptedException, ExecutionException {
+            return result.get();
+        }
+
+        @Override
+        public V get(long timeout, TimeUnit timeUnit) throws InterruptedException, ExecutionException, TimeoutException {
+            return result.get(waitNanosFor(timeUnit.toNanos(timeout)), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void run() {
+            V value;
+            try {
+                value = callable.call();
+            } catch (Throwable e) {
+                reportFailed(task, e);
+                changeState(PENDING, COMPLETED);
+                result.completeExceptionally(e);
+                return;
+            }
+            changeState(PENDING, COMPLETED);
+            result.complete(value);
+        }
+    }
+
+    /**
+     * Re-arms itself after every run by moving its deadline and adding itself back to the queue, so the returned
+     * future stays valid for all runs
+     */
     private abstract class PeriodicScheduledFutureWithRunnable extends ScheduledFutureWithRunnable {
 
-        long periodic;
-        TimeUnit periodicTimeUnit;
+        final long periodInNanos;
 
         private PeriodicScheduledFutureWithRunnable(Runnable runnable, long delay, TimeUnit timeUnit, long periodic) {
             super(delay, timeUnit, runnable);
-            this.periodic = periodic;
-            this.periodicTimeUnit = timeUnit;
+            this.periodInNanos = timeUnit.toNanos(periodic);
         }
 
         @Override
@@ -236,19 +877,33 @@ final class BlockingScheduledExecutionService extends BlockingExecutorService im
             return true;
         }
 
+        @Override
+        public void run() {
+            runRunnable();
+            if (!isCancelled()) {
+                deadline = nextDeadline();
+                scheduledFutures.add(this);
+            }
+        }
+
+        abstract long nextDeadline();
+
     }
 
     private class FixedRatePeriodicScheduledFutureWithRunnable extends PeriodicScheduledFutureWithRunnable {
 
-
         private FixedRatePeriodicScheduledFutureWithRunnable(Runnable runnable, long delay, TimeUnit timeUnit, long periodic) {
             super(runnable, delay, timeUnit, periodic);
         }
 
         @Override
-        public void run() {
-            scheduleAtFixedRate(this.runnable, periodic, periodic, periodicTimeUnit);
-            super.run();
+        long nextDeadline() {
+            return EpochNanos.plus(deadline, periodInNanos);
+        }
+
+        @Override
+        SchedulerSnapshot.PendingTask pendingTask() {
+            return new SchedulerSnapshot.PendingTask(SchedulerSnapshot.PendingTask.FIXED_RATE, runnable, null, periodInNanos, this);
         }
     }
 
@@ -258,10 +913,95 @@ final class BlockingScheduledExecutionService extends BlockingExecutorService im
             super(runnable, delay, timeUnit, periodic);
         }
 
+        @Override
+        long nextDeadline() {
+            return EpochNanos.plus(timeSource.epochNanos(), periodInNanos);
+        }
+
+        @Override
+        SchedulerSnapshot.PendingTask pendingTask() {
+            return new SchedulerSnapshot.PendingTask(SchedulerSnapshot.PendingTask.FIXED_DELAY, runnable, null, periodInNanos, this);
+        }
+    }
+
+    /**
+     * Converts one-shot tasks only, a periodic task re-arms itself and has to stay the same instance
+     */
+    private class RegistryTaskCodec implements TaskCodec {
+
+        private final TaskRegistry registry;
+
+        private RegistryTaskCodec(TaskRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public int taskId(QueuedTask task) {
+            if (!(task instanceof ScheduledFutureWithRunnable) || ((ScheduledFutureWithRunnable) task).isPeriodic()) {
+                return -1;
+            }
+            return registry.idOf(((ScheduledFutureWithRunnable) task).runnable);
+        }
+
+        @Override
+        public QueuedTask decode(int taskId, long deadline, int priority, long sequence) {
+            var task = new LoadedScheduledFutureWithRunnable(registry.taskOf(taskId));
+            task.deadline = deadline;
+            task.priority = priority;
+            task.sequence = sequence;
+            return task;
+        }
+
+        @Override
+        public void forward(QueuedTask copy, QueuedTask original) {
+            ((LoadedScheduledFutureWithRunnable) copy).forwardTo((ScheduledFutureWithRunnable) original);
+        }
+
+        @Override
+        public boolean canForget(QueuedTask copy) {
+            var loaded = (LoadedScheduledFutureWithRunnable) copy;
+            return loaded.isCancelled() || (loaded.state() == QueuedTask.COMPLETED && loaded.failure == null);
+        }
+    }
+
+    /**
+     * Copy of a task loaded back from an overflow file. It is skipped once the original is cancelled and completes
+     * the original after it has run.
+     */
+    private class LoadedScheduledFutureWithRunnable extends ScheduledFutureWithRunnable {
+
+        private volatile ScheduledFutureWithRunnable original;
+
+        private LoadedScheduledFutureWithRunnable(Runnable runnable) {
+            super(0, TimeUnit.NANOSECONDS, runnable);
+        }
+
+        void forwardTo(ScheduledFutureWithRunnable original) {
+            this.original = original;
+            completeOriginal();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            ScheduledFutureWithRunnable forwarded = original;
+            return super.isCancelled() || (forwarded != null && forwarded.isCancelled());
+        }
+
         @Override
         public void run() {
-            super.run();
-            scheduleWithFixedDelay(this.runnable, periodic, periodic, periodicTimeUnit);
+            try {
+                super.run();
+            } finally {
+                completeOriginal();
+            }
+        }
+
+        private void completeOriginal() {
+            ScheduledFutureWithRunnable forwarded = original;
+            if (forwarded != null && state() == COMPLETED) {
+                forwarded.failure = failure;
+                forwarded.changeState(PENDING, COMPLETED);
+            }
         }
     }
 }
@@ -0,0 +1,119 @@
+package io.haste;
+
+import java.lang.ref.WeakReference;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coarse clock. A background daemon thread, shared by all instances, reads the clock once per resolution, readers
+ * only get the cached value. Refreshing stops once the instance is garbage collected.
+ */
+final class CachedTimeSource implements TimeSource {
+
+    private static final ScheduledThreadPoolExecutor TICKER = newTicker();
+
+    private final Clock clock;
+    private volatile Tick tick;
+
+    CachedTimeSource(Clock clock, long resolutionInNanos) {
+        Objects.requireNonNull(clock);
+        if (resolutionInNanos <= 0) throw new IllegalArgumentException();
+        this.clock = clock;
+        this.tick = new Tick(clock);
+        var refresher = new Refresher(this);
+        refresher.future = TICKER.scheduleAtFixedRate(refresher, resolutionInNanos, resolutionInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static ScheduledThreadPoolExecutor newTicker() {
+        var ticker = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "haste-cached-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.setRemoveOnCancelPolicy(true);
+        return ticker;
+    }
+
+    @Override
+    public ZonedDateTime now() {
+        return tick.now;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return tick.millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return tick.instant;
+    }
+
+    @Override
+    public long epochNanos() {
+        return tick.epochNanos;
+    }
+
+    @Override
+    public Clock asClock() {
+        return new TimeSourceClock(this, clock.getZone());
+    }
+
+    /**
+     * @return value of {@link System#nanoTime()} read at the last tick
+     */
+    @Override
+    public long nanoTime() {
+        return tick.nanoTime;
+    }
+
+    private void refresh() {
+        tick = new Tick(clock);
+    }
+
+    /**
+     * Holds the time source weakly, so the shared ticker does not keep it alive
+     */
+    private static final class Refresher implements Runnable {
+
+        private final WeakReference<CachedTimeSource> timeSource;
+        private volatile ScheduledFuture<?> future;
+
+        private Refresher(CachedTimeSource timeSource) {
+            this.timeSource = new WeakReference<>(timeSource);
+        }
+
+        @Override
+        public void run() {
+            CachedTimeSource current = timeSource.get();
+            if (current != null) {
+                current.refresh();
+            } else if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    private static final class Tick {
+
+        private final ZonedDateTime now;
+        private final Instant instant;
+        private final long millis;
+        private final long epochNanos;
+        private final long nanoTime;
+
+        private Tick(Clock clock) {
+            this.instant = clock.instant();
+            this.now = ZonedDateTime.ofInstant(instant, clock.getZone());
+            this.millis = instant.toEpochMilli();
+            this.epochNanos = EpochNanos.of(instant);
+            this.nanoTime = System.nanoTime();
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+package io.haste;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Allows tasks to be added and removed from any thread while a single driver thread polls them. Added and removed
+ * tasks go to lock-free queues first and are applied to the delegate by the driver thread before each poll.
+ */
+final class ConcurrentTaskQueue implements TaskQueue {
+
+    private final Queue<QueuedTask> submittedTasks = new ConcurrentLinkedQueue<>();
+    private final Queue<QueuedTask> cancelledTasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger submittedCount = new AtomicInteger();
+    private final AtomicInteger cancelledCount = new AtomicInteger();
+    private final List<QueuedTask> drainedTasks = new ArrayList<>();
+    private final TaskQueue delegate;
+
+    ConcurrentTaskQueue(TaskQueue delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void add(QueuedTask task) {
+        submittedCount.incrementAndGet();
+        submittedTasks.add(task);
+    }
+
+    @Override
+    public QueuedTask peek() {
+        drainSubmittedTasks();
+        drainCancelledTasks();
+        return delegate.peek();
+    }
+
+    @Override
+    public QueuedTask pollDue(long time) {
+        drainSubmittedTasks();
+        drainCancelledTasks();
+        return delegate.pollDue(time);
+    }
+
+    /**
+     * The task is removed by the driver thread before the next poll
+     *
+     * @return always true
+     */
+    @Override
+    public boolean remove(QueuedTask task) {
+        cancelledCount.incrementAndGet();
+        cancelledTasks.add(task);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return delegate.size() + submittedCount.get();
+    }
+
+    @Override
+    public int cancelledSize() {
+        return Math.min(cancelledCount.get(), size());
+    }
+
+    /**
+     * Applies pending additions and removals first, so it has to be called by the driver thread
+     */
+    @Override
+    public void forEach(Consumer<? super QueuedTask> action) {
+        drainSubmittedTasks();
+        drainCancelledTasks();
+        delegate.forEach(action);
+    }
+
+    @Override
+    public TaskQueue emptyCopy() {
+        return new ConcurrentTaskQueue(delegate.emptyCopy());
+    }
+
+    @Override
+    public void attachTo(BlockingScheduledExecutionService owner) {
+        delegate.attachTo(owner);
+    }
+
+    @Override
+    public void refresh(QueuedTask task) {
+        delegate.refresh(task);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private void drainSubmittedTasks() {
+        QueuedTask task;
+        while ((task = submittedTasks.poll()) != null) {
+            if (!task.isCancelled()) {
+                drainedTasks.add(task);
+            }
+            submittedCount.decrementAndGet();
+        }
+        if (!drainedTasks.isEmpty()) {
+            delegate.addAll(drainedTasks);
+            drainedTasks.clear();
+        }
+    }
+
+    private void drainCancelledTasks() {
+        QueuedTask task;
+        while ((task = cancelledTasks.poll()) != null) {
+            delegate.remove(task);
+            cancelledCount.decrementAndGet();
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package io.haste;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Copies decoded by a {@link TaskCodec} which their originals may still need, by sequence number. A copy is kept
+ * until it completes without a failure or is cancelled, so the outcome of a failed copy is not lost even if its
+ * original is refreshed long after the run. Failed copies are kept until their originals are refreshed.
+ */
+final class DecodedCopies {
+
+    private static final int MIN_PRUNE_THRESHOLD = 64;
+
+    private final TaskCodec codec;
+    private final Map<Long, QueuedTask> copies = new HashMap<>();
+    private int pruneThreshold = MIN_PRUNE_THRESHOLD;
+
+    DecodedCopies(TaskCodec codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Drops copies which are no longer needed once the number of kept copies doubles, so adding is amortized O(1)
+     */
+    void add(QueuedTask copy) {
+        copies.put(copy.sequence, copy);
+        if (copies.size() >= pruneThreshold) {
+            copies.values().removeIf(codec::canForget);
+            pruneThreshold = Math.max(MIN_PRUNE_THRESHOLD, copies.size() * 2);
+        }
+    }
+
+    /**
+     * Makes the copy of given original complete it, the copy is dropped once the original is done
+     *
+     * @return false if there is no copy of given original
+     */
+    boolean forward(QueuedTask original) {
+        QueuedTask copy = copies.get(original.sequence);
+        if (copy == null) {
+            return false;
+        }
+        codec.forward(copy, original);
+        if (original.state() != QueuedTask.PENDING) {
+            copies.remove(original.sequence);
+        }
+        return true;
+    }
+
+    /**
+     * @return copy of given original or null
+     */
+    QueuedTask remove(QueuedTask original) {
+        return copies.remove(original.sequence);
+    }
+
+    void clear() {
+        copies.clear();
+    }
+
+}
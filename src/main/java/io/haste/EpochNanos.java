@@ -0,0 +1,62 @@
+package io.haste;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Time as nanoseconds from 1970-01-01T00:00:00Z in a long, which covers instants from 1677-09-21T00:12:43.145224192Z
+ * to 2262-04-11T23:47:16.854775807Z
+ */
+final class EpochNanos {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final Instant MIN = toInstant(Long.MIN_VALUE);
+    private static final Instant MAX = toInstant(Long.MAX_VALUE);
+
+    private EpochNanos() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if given instant is outside of the supported range
+     */
+    static long of(Instant instant) {
+        long seconds = instant.getEpochSecond();
+        long nanos = instant.getNano();
+        if (seconds < 0) {
+            seconds++;
+            nanos -= NANOS_PER_SECOND;
+        }
+        try {
+            return Math.addExact(Math.multiplyExact(seconds, NANOS_PER_SECOND), nanos);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Instant " + instant + " is outside of the supported range from "
+                    + MIN + " to " + MAX);
+        }
+    }
+
+    static Instant toInstant(long epochNanos) {
+        return Instant.ofEpochSecond(0, epochNanos);
+    }
+
+    static long toMillis(long epochNanos) {
+        return Math.floorDiv(epochNanos, NANOS_PER_MILLI);
+    }
+
+    static long toNanosSaturated(Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return duration.isNegative() ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Adds non-negative offset to given time, saturating at {@link Long#MAX_VALUE} instead of overflowing
+     */
+    static long plus(long epochNanos, long offsetInNanos) {
+        long result = epochNanos + offsetInNanos;
+        return result < epochNanos ? Long.MAX_VALUE : result;
+    }
+
+}
@@ -1,6 +1,11 @@
 package io.haste;
 
+import java.nio.file.Path;
 import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Allows to create <b>Haste</b> classes
@@ -11,7 +16,8 @@ public final class Haste {
     }
 
     /**
-     * Allows to create {@link io.haste.ScheduledExecutorServiceWithMovableTime} instances
+     * Allows to create {@link io.haste.ScheduledExecutorServiceWithMovableTime} and
+     * {@link io.haste.ScheduledExecutorServiceWithTimeSource} instances
      */
     public static class ScheduledExecutionService {
 
@@ -33,6 +39,154 @@ public final class Haste {
             return new BlockingScheduledExecutionService(clock);
         }
 
+        /**
+         * Production counterpart of the executors with movable time. Fired tasks are run on virtual threads when
+         * available (JDK 21+), otherwise on a cached pool of daemon threads. Pending delayed tasks are dropped on shutdown.
+         *
+         * @return {@link io.haste.ScheduledExecutorServiceWithTimeSource} instance based on system clock
+         */
+        public static ScheduledExecutorServiceWithTimeSource realTime() {
+            return new RealTimeScheduledExecutionService(Clock.systemDefaultZone(), RealTimeScheduledExecutionService.newTaskExecutor());
+        }
+
+        /**
+         * Production counterpart of the executors with movable time. Pending delayed tasks are dropped on shutdown.
+         *
+         * @param taskExecutor executor running fired tasks, shut down together with returned instance
+         * @return {@link io.haste.ScheduledExecutorServiceWithTimeSource} instance based on system clock
+         */
+        public static ScheduledExecutorServiceWithTimeSource realTime(ExecutorService taskExecutor) {
+            return new RealTimeScheduledExecutionService(Clock.systemDefaultZone(), taskExecutor);
+        }
+
+        /**
+         * Time starts at the instant of given clock and flows by itself {@code speedFactor} times faster than the
+         * wall clock, e.g. 3600 makes an hour pass every second. A background daemon thread runs tasks as their
+         * deadlines come and stops on shutdown.
+         *
+         * @param clock       source of the start time
+         * @param speedFactor virtual nanoseconds passing in every wall-clock nanosecond, at least 1
+         * @return {@link io.haste.ScheduledExecutorServiceWithTimeSource} instance with accelerated time
+         */
+        public static ScheduledExecutorServiceWithTimeSource scaledRealTime(Clock clock, long speedFactor) {
+            if (speedFactor < 1) throw new IllegalArgumentException();
+            var timeSource = new StandaloneMovableTimeSource(clock, speedFactor);
+            var executorService = new BlockingScheduledExecutionService(timeSource, new ConcurrentTaskQueue(new HeapTaskQueue()), null);
+            ScaledTimeDriver.start(executorService, timeSource);
+            return executorService;
+        }
+
+        /**
+         * Tasks can be scheduled and cancelled from many threads while a single thread moves the time.
+         *
+         * @return thread-safe {@link io.haste.ScheduledExecutorServiceWithMovableTime} instance with fixed clock with current time
+         */
+        public static ScheduledExecutorServiceWithMovableTime concurrentWithFixedClockFromNow() {
+            return concurrentWithFixedClock(Clock.systemDefaultZone());
+        }
+
+        /**
+         * Tasks can be scheduled and cancelled from many threads while a single thread moves the time.
+         *
+         * @param clock source of 'now'.
+         * @return thread-safe {@link io.haste.ScheduledExecutorServiceWithMovableTime} instance with fixed clock from given clock
+         */
+        public static ScheduledExecutorServiceWithMovableTime concurrentWithFixedClock(Clock clock) {
+            return new BlockingScheduledExecutionService(clock, new ConcurrentTaskQueue(new HeapTaskQueue()));
+        }
+
+        /**
+         * While moving the time, all tasks with the same deadline are run in parallel on given executor and the clock
+         * is not moved further until all of them finish. Tasks with different deadlines are still run in deadline
+         * order. Tasks sharing a deadline are handed over to the executor in priority and scheduling order, so
+         * they start in that order on a single-threaded executor. Tasks can be scheduled from many threads, like in
+         * {@link #concurrentWithFixedClock(Clock)}.
+         *
+         * @param clock    source of 'now'.
+         * @param executor executor running tasks with the same deadline, e.g. {@link java.util.concurrent.ForkJoinPool#commonPool()}
+         * @return {@link io.haste.ScheduledExecutorServiceWithMovableTime} instance with fixed clock from given clock
+         */
+        public static ScheduledExecutorServiceWithMovableTime withParallelDispatch(Clock clock, Executor executor) {
+            Objects.requireNonNull(executor);
+            return new BlockingScheduledExecutionService(clock, new ConcurrentTaskQueue(new HeapTaskQueue()), executor);
+        }
+
+        /**
+         * Tasks submitted without a delay, by {@code execute}, {@code submit}, {@code invokeAll} or {@code invokeAny},
+         * are run on given executor, so CPU-bound fan-out in the tested code can use every core. Delayed tasks still
+         * wait for the time to move and can be scheduled from many threads, like in
+         * {@link #concurrentWithFixedClock(Clock)}. Given executor is not shut down together with returned instance.
+         *
+         * @param clock    source of 'now'.
+         * @param executor executor running immediate tasks, e.g. {@link java.util.concurrent.ForkJoinPool#commonPool()}
+         * @return {@link io.haste.ScheduledExecutorServiceWithMovableTime} instance with fixed clock from given clock
+         */
+        public static ScheduledExecutorServiceWithMovableTime withImmediateExecutor(Clock clock, Executor executor) {
+            Objects.requireNonNull(executor);
+            return new BlockingScheduledExecutionService(new StandaloneMovableTimeSource(clock),
+                    new ConcurrentTaskQueue(new HeapTaskQueue()), null, executor);
+        }
+
+        /**
+         * Pending tasks are kept in a hierarchical timing wheel instead of a binary heap, so scheduling does not
+         * depend on the number of pending tasks. Suits workloads with a lot of short timeouts.
+         *
+         * @param clock        source of 'now'.
+         * @param tickDuration resolution of the wheel, tasks within one tick are still run in deadline order
+         * @return {@link io.haste.ScheduledExecutorServiceWithMovableTime} instance with fixed clock from given clock
+         */
+        public static ScheduledExecutorServiceWithMovableTime withTimingWheel(Clock clock, Duration tickDuration) {
+            return new BlockingScheduledExecutionService(clock, new TimingWheelTaskQueue(tickDuration.toNanos()));
+        }
+
+        /**
+         * Pending tasks are kept in a heap of primitive arrays. One-shot tasks running a runnable from the registry
+         * take 28 bytes of the heap each, their futures are held only by the caller. Other tasks are kept together
+         * with their futures. Suits simulations with millions of pending timers.
+         *
+         * @param clock    source of 'now'.
+         * @param registry runnables of tasks which are kept without their futures
+         * @return {@link io.haste.ScheduledExecutorServiceWithMovableTime} instance with fixed clock from given clock
+         */
+        public static ScheduledExecutorServiceWithMovableTime withPrimitiveHeap(Clock clock, TaskRegistry registry) {
+            Objects.requireNonNull(registry);
+            return new BlockingScheduledExecutionService(clock, new PrimitiveHeapTaskQueue(registry));
+        }
+
+        /**
+         * Tasks running a runnable from the registry which are due beyond the horizon are written to a memory-mapped
+         * file instead of the heap and loaded back as the time gets close to them. Suits years-long simulations with
+         * huge numbers of far-future timers. Only one-shot tasks are written, periodic tasks stay in memory. Shutdown
+         * closes the file and drops tasks written to it. Forks and restores write to temporary files next to it.
+         *
+         * @param clock    source of 'now'.
+         * @param registry runnables which can be written to the file
+         * @param file     file to create, existing file is truncated
+         * @param horizon  tasks due within the horizon are kept in memory
+         * @return {@link io.haste.ScheduledExecutorServiceWithMovableTime} instance with fixed clock from given clock
+         */
+        public static ScheduledExecutorServiceWithMovableTime withOverflowFile(Clock clock, TaskRegistry registry, Path file, Duration horizon) {
+            Objects.requireNonNull(clock);
+            Objects.requireNonNull(registry);
+            Objects.requireNonNull(file);
+            var queue = new OverflowTaskQueue(new HeapTaskQueue(), new MappedChunkFile(file), horizon.toNanos(),
+                    EpochNanos.of(clock.instant()), registry);
+            return new BlockingScheduledExecutionService(clock, queue);
+        }
+
+        /**
+         * Creates group of executors sharing one virtual time, e.g. one executor per simulated node. Moving the time
+         * of the group runs tasks of all members in global deadline order.
+         *
+         * @param clock          source of 'now'.
+         * @param memberExecutor executor running members which have tasks due at the same instant in parallel,
+         *                       e.g. {@link java.util.concurrent.ForkJoinPool#commonPool()}
+         * @return {@link io.haste.VirtualClockGroup} with fixed clock from given clock and no members
+         */
+        public static VirtualClockGroup virtualClockGroup(Clock clock, Executor memberExecutor) {
+            return new ParallelVirtualClockGroup(clock, memberExecutor);
+        }
+
     }
 
     /**
@@ -50,6 +204,17 @@ public final class Haste {
             return new SystemTimeSource();
         }
 
+        /**
+         * Time is read from system clock by a background daemon thread, shared by all such instances, once per given
+         * resolution, calls return the cached value without allocation. Meant to be created once and shared.
+         *
+         * @param resolution how often the cached time is refreshed, e.g. 1 ms
+         * @return instance of {@link io.haste.TimeSource} based on system clock with given resolution
+         */
+        public static io.haste.TimeSource cachedSystemTimeSource(Duration resolution) {
+            return new CachedTimeSource(Clock.systemDefaultZone(), resolution.toNanos());
+        }
+
 
         /**
          * @return create {@link io.haste.MovableTimeSource} instance with fixed clock with current time
@@ -59,8 +224,9 @@ public final class Haste {
         }
 
         /**
-         * @param clock source of 'now'.
+         * @param clock source of 'now', between years 1677 and 2262
          * @return create {@link io.haste.MovableTimeSource} instance with fixed clock from given clock
+         * @throws IllegalArgumentException if the instant of given clock is outside of the supported range
          */
         public static MovableTimeSource withFixedClock(Clock clock) {
             return new StandaloneMovableTimeSource(clock);
@@ -0,0 +1,138 @@
+package io.haste;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Binary heap which keeps position of every task in {@link QueuedTask#queueIndex}, so any task can be removed in
+ * O(log n) time.
+ */
+final class HeapTaskQueue implements TaskQueue {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private QueuedTask[] heap = new QueuedTask[INITIAL_CAPACITY];
+    private int size = 0;
+
+    @Override
+    public void add(QueuedTask task) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size + (size >> 1));
+        }
+        siftUp(size++, task);
+    }
+
+    /**
+     * Appends all tasks and restores the heap in O(n) time when that is cheaper than adding them one by one
+     */
+    @Override
+    public void addAll(List<? extends QueuedTask> tasks) {
+        int count = tasks.size();
+        int total = size + count;
+        if ((long) count * (Integer.SIZE - Integer.numberOfLeadingZeros(total)) <= total) {
+            TaskQueue.super.addAll(tasks);
+            return;
+        }
+        if (total > heap.length) {
+            heap = Arrays.copyOf(heap, total + (total >> 1));
+        }
+        for (QueuedTask task : tasks) {
+            place(size++, task);
+        }
+        for (int index = (size >>> 1) - 1; index >= 0; index--) {
+            siftDown(index, heap[index]);
+        }
+    }
+
+    @Override
+    public QueuedTask peek() {
+        return heap[0];
+    }
+
+    @Override
+    public QueuedTask pollDue(long time) {
+        if (size == 0 || heap[0].deadline > time) {
+            return null;
+        }
+        return removeAt(0);
+    }
+
+    @Override
+    public boolean remove(QueuedTask task) {
+        int index = task.queueIndex;
+        if (index < 0 || index >= size || heap[index] != task) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEach(Consumer<? super QueuedTask> action) {
+        for (int index = 0; index < size; index++) {
+            action.accept(heap[index]);
+        }
+    }
+
+    @Override
+    public TaskQueue emptyCopy() {
+        return new HeapTaskQueue();
+    }
+
+    private QueuedTask removeAt(int index) {
+        QueuedTask removed = heap[index];
+        int last = --size;
+        QueuedTask moved = heap[last];
+        heap[last] = null;
+        if (index != last) {
+            siftDown(index, moved);
+            if (heap[index] == moved) {
+                siftUp(index, moved);
+            }
+        }
+        removed.queueIndex = -1;
+        return removed;
+    }
+
+    private void siftUp(int index, QueuedTask task) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            QueuedTask parentTask = heap[parent];
+            if (QueuedTask.compare(task, parentTask) >= 0) {
+                break;
+            }
+            place(index, parentTask);
+            index = parent;
+        }
+        place(index, task);
+    }
+
+    private void siftDown(int index, QueuedTask task) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && QueuedTask.compare(heap[right], heap[child]) < 0) {
+                child = right;
+            }
+            if (QueuedTask.compare(task, heap[child]) <= 0) {
+                break;
+            }
+            place(index, heap[child]);
+            index = child;
+        }
+        place(index, task);
+    }
+
+    private void place(int index, QueuedTask task) {
+        heap[index] = task;
+        task.queueIndex = index;
+    }
+
+}
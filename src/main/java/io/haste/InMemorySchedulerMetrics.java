@@ -0,0 +1,138 @@
+package io.haste;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Thread-safe {@link SchedulerMetricsListener} keeping counters and histograms in memory. Run times are also summed
+ * per class of the task, which shows which kind of jobs dominates the real time of a simulation.
+ */
+public final class InMemorySchedulerMetrics implements SchedulerMetricsListener {
+
+    private final LongAdder scheduledTasks = new LongAdder();
+    private final LongAdder cancelledTasks = new LongAdder();
+    private final LongAdder failedTasks = new LongAdder();
+    private final LongAdder timeAdvancedInNanos = new LongAdder();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+    private final PowerOfTwoHistogram runTimes = new PowerOfTwoHistogram();
+    private final PowerOfTwoHistogram runTasksPerAdvance = new PowerOfTwoHistogram();
+    private final Map<Class<?>, LongAdder> runTimeByTaskClass = new ConcurrentHashMap<>();
+
+    @Override
+    public void tasksScheduled(int count, int queueDepth) {
+        scheduledTasks.add(count);
+        updateQueueDepth(queueDepth);
+    }
+
+    @Override
+    public void taskCancelled() {
+        cancelledTasks.increment();
+    }
+
+    @Override
+    public void taskRun(Object task, long runTimeInNanos) {
+        runTimes.record(runTimeInNanos);
+        runTimeByTaskClass.computeIfAbsent(task.getClass(), taskClass -> new LongAdder()).add(runTimeInNanos);
+    }
+
+    @Override
+    public void taskFailed(Object task, Throwable cause) {
+        failedTasks.increment();
+    }
+
+    @Override
+    public void timeAdvanced(long advancedInNanos, int runTasks, int queueDepth) {
+        timeAdvancedInNanos.add(advancedInNanos);
+        runTasksPerAdvance.record(runTasks);
+        updateQueueDepth(queueDepth);
+    }
+
+    private void updateQueueDepth(int depth) {
+        queueDepth.set(depth);
+        peakQueueDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    public long scheduledTasks() {
+        return scheduledTasks.sum();
+    }
+
+    public long cancelledTasks() {
+        return cancelledTasks.sum();
+    }
+
+    /**
+     * @return number of task runs, every run of a periodic task is counted
+     */
+    public long runTasks() {
+        return runTimes.count();
+    }
+
+    public long failedTasks() {
+        return failedTasks.sum();
+    }
+
+    /**
+     * @return queue depth reported by the last scheduling or time move
+     */
+    public int queueDepth() {
+        return queueDepth.get();
+    }
+
+    public int peakQueueDepth() {
+        return peakQueueDepth.get();
+    }
+
+    public Duration totalRunTime() {
+        return Duration.ofNanos(runTimes.sum());
+    }
+
+    public Duration maxRunTime() {
+        return Duration.ofNanos(runTimes.max());
+    }
+
+    /**
+     * @param percentile value from 0 to 100
+     * @return run time of given percentile, rounded up to the next power of two nanoseconds
+     */
+    public Duration runTimePercentile(double percentile) {
+        return Duration.ofNanos(runTimes.percentile(percentile));
+    }
+
+    /**
+     * @return total run time per class of scheduled runnable or callable
+     */
+    public Map<Class<?>, Duration> runTimeByTaskClass() {
+        return runTimeByTaskClass.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> Duration.ofNanos(entry.getValue().sum())));
+    }
+
+    public Duration totalTimeAdvanced() {
+        return Duration.ofNanos(timeAdvancedInNanos.sum());
+    }
+
+    /**
+     * @return number of calls moving the time
+     */
+    public long advanceCount() {
+        return runTasksPerAdvance.count();
+    }
+
+    public long maxRunTasksPerAdvance() {
+        return runTasksPerAdvance.max();
+    }
+
+    /**
+     * @param percentile value from 0 to 100
+     * @return number of tasks run by a single time move at given percentile, rounded up to the next power of two
+     * minus one
+     */
+    public long runTasksPerAdvancePercentile(double percentile) {
+        return runTasksPerAdvance.percentile(percentile);
+    }
+
+}
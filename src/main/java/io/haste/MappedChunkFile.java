@@ -0,0 +1,149 @@
+package io.haste;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * File of fixed-size chunks mapped into memory. The file only grows, chunks which are no longer needed are reused
+ * by later allocations. Data lives in the page cache, so it does not count towards the heap.
+ */
+final class MappedChunkFile {
+
+    static final int CHUNK_SIZE = 4096;
+    private static final int CHUNKS_PER_SEGMENT = 256;
+    private static final int SEGMENT_SIZE = CHUNKS_PER_SEGMENT * CHUNK_SIZE;
+
+    private final Path path;
+    private final boolean temporary;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private long[] freeChunks = new long[16];
+    private int freeCount = 0;
+    private long fileEnd = 0;
+
+    /**
+     * @param path file to create, existing file is truncated
+     */
+    MappedChunkFile(Path path) {
+        this(path, false);
+    }
+
+    /**
+     * @param temporary whether the file is deleted on close
+     */
+    private MappedChunkFile(Path path, boolean temporary) {
+        this.path = path;
+        this.temporary = temporary;
+        try {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return offset of a chunk with undefined content
+     */
+    long allocate() {
+        if (freeCount > 0) {
+            return freeChunks[--freeCount];
+        }
+        if (fileEnd % SEGMENT_SIZE == 0) {
+            mapSegment(fileEnd);
+        }
+        long chunk = fileEnd;
+        fileEnd += CHUNK_SIZE;
+        return chunk;
+    }
+
+    void free(long chunk) {
+        if (freeCount == freeChunks.length) {
+            freeChunks = Arrays.copyOf(freeChunks, freeCount * 2);
+        }
+        freeChunks[freeCount++] = chunk;
+    }
+
+    /**
+     * @return new temporary file in the directory of this file
+     */
+    MappedChunkFile emptyCopy() {
+        try {
+            return new MappedChunkFile(Files.createTempFile(path.toAbsolutePath().getParent(), "haste", ".timers"), true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Unmaps the file where the JDK allows it, otherwise mappings are released by the garbage collector
+     */
+    void close() {
+        for (MappedByteBuffer segment : segments) {
+            unmap(segment);
+        }
+        segments.clear();
+        try {
+            channel.close();
+            if (temporary) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    long getLong(long chunk, int offset) {
+        return segmentOf(chunk).getLong(positionOf(chunk, offset));
+    }
+
+    void putLong(long chunk, int offset, long value) {
+        segmentOf(chunk).putLong(positionOf(chunk, offset), value);
+    }
+
+    int getInt(long chunk, int offset) {
+        return segmentOf(chunk).getInt(positionOf(chunk, offset));
+    }
+
+    void putInt(long chunk, int offset, int value) {
+        segmentOf(chunk).putInt(positionOf(chunk, offset), value);
+    }
+
+    private void mapSegment(long start) {
+        try {
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, start, SEGMENT_SIZE));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void unmap(MappedByteBuffer segment) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field instance = unsafeClass.getDeclaredField("theUnsafe");
+            instance.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(instance.get(null), segment);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // left to the garbage collector
+        }
+    }
+
+    private MappedByteBuffer segmentOf(long chunk) {
+        return segments.get((int) (chunk / SEGMENT_SIZE));
+    }
+
+    private static int positionOf(long chunk, int offset) {
+        return (int) (chunk % SEGMENT_SIZE) + offset;
+    }
+
+}
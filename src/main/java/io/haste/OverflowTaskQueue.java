@@ -0,0 +1,314 @@
+package io.haste;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps tasks due within the horizon in memory and writes tasks due later, if the codec can convert them, to
+ * a memory-mapped file. Time is split into windows as long as the horizon, written tasks are kept in a chain of
+ * file chunks per window and the whole window is loaded back once the memory queue reaches it. Heap usage does not
+ * depend on the number of written tasks, only on the number of windows they fall into.
+ * <p>
+ * A task loaded back is a copy of the written one. The original stays in charge of it: removing the original
+ * removes the copy and the copy completes the original once someone refreshes it, see {@link DecodedCopies}.
+ * Methods are synchronized, so the
+ * state of a task can be refreshed from other threads while one thread moves the time.
+ * <p>
+ * Written tasks are marked with a number unique to the queue. Tasks marked by another queue were dropped when it
+ * was closed, so they are cancelled once refreshed.
+ */
+final class OverflowTaskQueue implements TaskQueue {
+
+    private static final int PREVIOUS_CHUNK = 0;
+    private static final int RECORD_COUNT = 8;
+    private static final int HEADER_SIZE = 16;
+    private static final int DEADLINE = 0;
+    private static final int SEQUENCE = 8;
+    private static final int PRIORITY = 16;
+    private static final int TASK_ID = 20;
+    private static final int RECORD_SIZE = 24;
+    private static final int RECORDS_PER_CHUNK = (MappedChunkFile.CHUNK_SIZE - HEADER_SIZE) / RECORD_SIZE;
+
+    private final TaskQueue memory;
+    private final MappedChunkFile file;
+    private final long horizonInNanos;
+    private final TaskRegistry registry;
+    private final int fileMark = QueuedTask.newQueueMark();
+    private final TreeMap<Long, Window> windowsInFile = new TreeMap<>();
+    private final Set<Long> cancelledInFile = new HashSet<>();
+    private final Map<Long, QueuedTask> refreshedInFile = new HashMap<>();
+    private final List<QueuedTask> loadedTasks = new ArrayList<>();
+    private TaskCodec codec;
+    private DecodedCopies loadedCopies;
+    private long loadedWindow;
+    private int tasksInFile = 0;
+    private boolean closed = false;
+
+    /**
+     * @param startTime time in epoch nanoseconds, tasks due within the horizon from it are kept in memory
+     * @param registry  runnables of tasks which can be written to the file
+     */
+    OverflowTaskQueue(TaskQueue memory, MappedChunkFile file, long horizonInNanos, long startTime, TaskRegistry registry) {
+        if (horizonInNanos <= 0) throw new IllegalArgumentException();
+        this.memory = memory;
+        this.file = file;
+        this.horizonInNanos = horizonInNanos;
+        this.registry = registry;
+        this.loadedWindow = nextWindow(startTime);
+    }
+
+    private OverflowTaskQueue(OverflowTaskQueue prototype) {
+        this.memory = prototype.memory.emptyCopy();
+        this.file = prototype.file.emptyCopy();
+        this.horizonInNanos = prototype.horizonInNanos;
+        this.registry = prototype.registry;
+        this.loadedWindow = prototype.loadedWindow;
+    }
+
+    /**
+     * Until the queue is attached every task is kept in memory
+     */
+    @Override
+    public synchronized void attachTo(BlockingScheduledExecutionService owner) {
+        memory.attachTo(owner);
+        codec = owner.registryCodec(registry);
+        loadedCopies = new DecodedCopies(codec);
+    }
+
+    @Override
+    public synchronized void add(QueuedTask task) {
+        long window = Math.floorDiv(task.deadline, horizonInNanos);
+        int taskId;
+        if (window <= loadedWindow || closed || codec == null || (taskId = codec.taskId(task)) < 0) {
+            memory.add(task);
+            return;
+        }
+        write(window, task, taskId);
+    }
+
+    @Override
+    public synchronized void addAll(List<? extends QueuedTask> tasks) {
+        for (QueuedTask task : tasks) {
+            add(task);
+        }
+    }
+
+    @Override
+    public synchronized QueuedTask peek() {
+        loadNextWindowIfReached();
+        return memory.peek();
+    }
+
+    /**
+     * Loads the window following the one of the polled task in advance, so tasks are loaded before their time
+     */
+    @Override
+    public synchronized QueuedTask pollDue(long time) {
+        loadNextWindowIfReached();
+        QueuedTask task = memory.pollDue(time);
+        if (task != null) {
+            loadWindowsUntil(nextWindow(task.deadline));
+        }
+        return task;
+    }
+
+    /**
+     * Removing a written task removes its copy if the task was loaded back but has not been polled yet. A polled copy
+     * follows the cancellation of the original, so it is skipped unless it has already started.
+     */
+    @Override
+    public synchronized boolean remove(QueuedTask task) {
+        if (task.queueIndex != fileMark || closed) {
+            return task.queueIndex >= -1 && memory.remove(task);
+        }
+        if (isInFile(task)) {
+            refreshedInFile.remove(task.sequence);
+            cancelledInFile.add(task.sequence);
+            tasksInFile--;
+            task.queueIndex = -1;
+            return true;
+        }
+        QueuedTask copy = loadedCopies.remove(task);
+        task.queueIndex = -1;
+        if (copy == null) {
+            return false;
+        }
+        codec.forward(copy, task);
+        return memory.remove(copy);
+    }
+
+    @Override
+    public synchronized void refresh(QueuedTask task) {
+        if (task.queueIndex >= -1 || task.state() != QueuedTask.PENDING) {
+            return;
+        }
+        if (task.queueIndex != fileMark || (closed && isInFile(task))) {
+            task.queueIndex = -1;
+            task.changeState(QueuedTask.PENDING, QueuedTask.CANCELLED);
+            return;
+        }
+        if (isInFile(task)) {
+            refreshedInFile.put(task.sequence, task);
+            return;
+        }
+        if (loadedCopies.forward(task)) {
+            return;
+        }
+        task.queueIndex = -1;
+        task.changeState(QueuedTask.PENDING, QueuedTask.COMPLETED);
+    }
+
+    @Override
+    public synchronized int size() {
+        return memory.size() + tasksInFile;
+    }
+
+    @Override
+    public synchronized int cancelledSize() {
+        return memory.cancelledSize();
+    }
+
+    /**
+     * Tasks in the file are visited as new instances
+     */
+    @Override
+    public synchronized void forEach(Consumer<? super QueuedTask> action) {
+        memory.forEach(action);
+        for (Window window : windowsInFile.values()) {
+            read(window, false, action);
+        }
+    }
+
+    /**
+     * @return empty queue writing to a new temporary file in the directory of this queue's file
+     */
+    @Override
+    public synchronized TaskQueue emptyCopy() {
+        return new OverflowTaskQueue(this);
+    }
+
+    /**
+     * Closes the file and drops tasks written to it, their futures are cancelled once refreshed
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        windowsInFile.clear();
+        cancelledInFile.clear();
+        tasksInFile = 0;
+        file.close();
+        for (QueuedTask task : refreshedInFile.values()) {
+            task.queueIndex = -1;
+            task.changeState(QueuedTask.PENDING, QueuedTask.CANCELLED);
+        }
+        refreshedInFile.clear();
+    }
+
+    /**
+     * Windows up to the loaded one are never in the file, also after the file is closed
+     */
+    private boolean isInFile(QueuedTask task) {
+        return Math.floorDiv(task.deadline, horizonInNanos) > loadedWindow && !cancelledInFile.contains(task.sequence);
+    }
+
+    private void loadNextWindowIfReached() {
+        while (!windowsInFile.isEmpty()) {
+            QueuedTask head = memory.peek();
+            if (head != null && Math.floorDiv(head.deadline, horizonInNanos) < windowsInFile.firstKey()) {
+                return;
+            }
+            load(windowsInFile.pollFirstEntry());
+        }
+    }
+
+    private void loadWindowsUntil(long window) {
+        while (!windowsInFile.isEmpty() && windowsInFile.firstKey() <= window) {
+            load(windowsInFile.pollFirstEntry());
+        }
+        loadedWindow = Math.max(loadedWindow, window);
+    }
+
+    private void load(Map.Entry<Long, Window> entry) {
+        read(entry.getValue(), true, this::loadCopy);
+        tasksInFile -= loadedTasks.size();
+        for (long chunk = entry.getValue().lastChunk; chunk >= 0; ) {
+            long previous = file.getLong(chunk, PREVIOUS_CHUNK);
+            file.free(chunk);
+            chunk = previous;
+        }
+        loadedWindow = Math.max(loadedWindow, entry.getKey());
+        try {
+            memory.addAll(loadedTasks);
+        } finally {
+            loadedTasks.clear();
+        }
+    }
+
+    private void loadCopy(QueuedTask copy) {
+        loadedTasks.add(copy);
+        loadedCopies.add(copy);
+        QueuedTask original = refreshedInFile.remove(copy.sequence);
+        if (original != null) {
+            codec.forward(copy, original);
+        }
+    }
+
+    private void write(long window, QueuedTask task, int taskId) {
+        Window chain = windowsInFile.computeIfAbsent(window, key -> new Window());
+        if (chain.lastChunk < 0 || file.getInt(chain.lastChunk, RECORD_COUNT) == RECORDS_PER_CHUNK) {
+            long chunk = file.allocate();
+            file.putLong(chunk, PREVIOUS_CHUNK, chain.lastChunk);
+            file.putInt(chunk, RECORD_COUNT, 0);
+            chain.lastChunk = chunk;
+        }
+        long chunk = chain.lastChunk;
+        int count = file.getInt(chunk, RECORD_COUNT);
+        int record = HEADER_SIZE + count * RECORD_SIZE;
+        file.putLong(chunk, record + DEADLINE, task.deadline);
+        file.putLong(chunk, record + SEQUENCE, task.sequence);
+        file.putInt(chunk, record + PRIORITY, task.priority);
+        file.putInt(chunk, record + TASK_ID, taskId);
+        file.putInt(chunk, RECORD_COUNT, count + 1);
+        task.queueIndex = fileMark;
+        tasksInFile++;
+    }
+
+    /**
+     * Tasks cancelled while in the file are skipped
+     *
+     * @param dropCancelled whether the window is loaded, so cancelled tasks will not be read again
+     */
+    private void read(Window window, boolean dropCancelled, Consumer<? super QueuedTask> action) {
+        for (long chunk = window.lastChunk; chunk >= 0; chunk = file.getLong(chunk, PREVIOUS_CHUNK)) {
+            int count = file.getInt(chunk, RECORD_COUNT);
+            for (int i = 0; i < count; i++) {
+                int record = HEADER_SIZE + i * RECORD_SIZE;
+                long sequence = file.getLong(chunk, record + SEQUENCE);
+                if (dropCancelled ? cancelledInFile.remove(sequence) : cancelledInFile.contains(sequence)) {
+                    continue;
+                }
+                action.accept(codec.decode(file.getInt(chunk, record + TASK_ID), file.getLong(chunk, record + DEADLINE),
+                        file.getInt(chunk, record + PRIORITY), sequence));
+            }
+        }
+    }
+
+    private long nextWindow(long time) {
+        long window = Math.floorDiv(time, horizonInNanos);
+        return window == Long.MAX_VALUE ? window : window + 1;
+    }
+
+    private static final class Window {
+        long lastChunk = -1;
+    }
+
+}
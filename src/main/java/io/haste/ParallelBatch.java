@@ -0,0 +1,46 @@
+package io.haste;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Runs a known number of actions, possibly on other threads, and lets the submitting thread wait for all of them.
+ * The last failure is rethrown to the waiting thread.
+ */
+final class ParallelBatch {
+
+    private final CountDownLatch remaining;
+    private volatile Throwable failure;
+
+    ParallelBatch(int size) {
+        this.remaining = new CountDownLatch(size);
+    }
+
+    void run(Runnable action) {
+        try {
+            action.run();
+        } catch (Throwable t) {
+            failure = t;
+        } finally {
+            remaining.countDown();
+        }
+    }
+
+    void await() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                remaining.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        Throwable t = failure;
+        if (t instanceof RuntimeException) throw (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+    }
+
+}
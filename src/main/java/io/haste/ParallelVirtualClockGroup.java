@@ -0,0 +1,178 @@
+package io.haste;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves the time in rounds: every round finds the earliest deadline of all members, moves every member to it and
+ * runs members with tasks due at that instant in parallel. Every member runs only tasks scheduled before the round
+ * started, tasks scheduled by a round for the same instant are run by the next round, so cross-member events are
+ * always run in timestamp order and rounds do not depend on thread timing.
+ */
+final class ParallelVirtualClockGroup implements VirtualClockGroup {
+
+    private final StandaloneMovableTimeSource timeSource;
+    private final Executor memberExecutor;
+    private final List<BlockingScheduledExecutionService> members = new CopyOnWriteArrayList<>();
+    private final List<BlockingScheduledExecutionService> dueMembers = new ArrayList<>();
+    private long[] sequenceMarks = new long[0];
+
+    ParallelVirtualClockGroup(Clock clock, Executor memberExecutor) {
+        Objects.requireNonNull(clock);
+        Objects.requireNonNull(memberExecutor);
+        this.timeSource = new StandaloneMovableTimeSource(clock);
+        this.memberExecutor = memberExecutor;
+    }
+
+    @Override
+    public ScheduledExecutorServiceWithMovableTime newMember() {
+        var clock = Clock.fixed(timeSource.instant(), timeSource.zone());
+        var member = new BlockingScheduledExecutionService(clock, new ConcurrentTaskQueue(new HeapTaskQueue()));
+        members.add(member);
+        return member;
+    }
+
+    @Override
+    public List<ScheduledExecutorServiceWithMovableTime> members() {
+        return Collections.unmodifiableList(new ArrayList<>(members));
+    }
+
+    @Override
+    public void advanceTimeBy(long delayTime, TimeUnit timeUnit) {
+        if (delayTime < 0) throw new IllegalArgumentException();
+        Objects.requireNonNull(timeUnit);
+
+        long targetTime = EpochNanos.plus(timeSource.epochNanos(), timeUnit.toNanos(delayTime));
+        while (collectDueMembers(targetTime)) {
+            long time = dueMembers.get(0).peekTask().deadline;
+            moveClocksTo(time);
+            try {
+                runRound(time);
+            } finally {
+                dueMembers.clear();
+            }
+        }
+        moveClocksTo(targetTime);
+    }
+
+    @Override
+    public void advanceTimeBy(Duration duration) {
+        advanceTimeBy(duration.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Optional<ZonedDateTime> nextDeadline() {
+        QueuedTask earliest = null;
+        for (BlockingScheduledExecutionService member : members) {
+            QueuedTask next = member.peekTask();
+            if (next != null && (earliest == null || next.deadline < earliest.deadline)) {
+                earliest = next;
+            }
+        }
+        if (earliest == null) {
+            return Optional.empty();
+        }
+        return Optional.of(ZonedDateTime.ofInstant(EpochNanos.toInstant(earliest.deadline), timeSource.zone()));
+    }
+
+    /**
+     * @return true if some members have tasks due not later than given time, those with the earliest deadline
+     * are collected
+     */
+    private boolean collectDueMembers(long limit) {
+        long earliest = limit;
+        for (BlockingScheduledExecutionService member : members) {
+            QueuedTask next = member.peekTask();
+            if (next == null || next.deadline > earliest) {
+                continue;
+            }
+            if (next.deadline < earliest) {
+                earliest = next.deadline;
+                dueMembers.clear();
+            }
+            dueMembers.add(member);
+        }
+        return !dueMembers.isEmpty();
+    }
+
+    private void moveClocksTo(long time) {
+        long delay = time - timeSource.epochNanos();
+        if (delay > 0) {
+            timeSource.advanceTimeBy(delay, TimeUnit.NANOSECONDS);
+        }
+        for (BlockingScheduledExecutionService member : members) {
+            member.moveClockTo(time);
+        }
+    }
+
+    private void runRound(long time) {
+        if (dueMembers.size() == 1) {
+            var member = dueMembers.get(0);
+            member.advanceTo(time, member.sequenceMark());
+            return;
+        }
+        if (sequenceMarks.length < dueMembers.size()) {
+            sequenceMarks = new long[dueMembers.size()];
+        }
+        for (int i = 0; i < dueMembers.size(); i++) {
+            sequenceMarks[i] = dueMembers.get(i).sequenceMark();
+        }
+        var batch = new ParallelBatch(dueMembers.size());
+        for (int i = 1; i < dueMembers.size(); i++) {
+            var member = dueMembers.get(i);
+            long sequenceMark = sequenceMarks[i];
+            Runnable run = () -> member.advanceTo(time, sequenceMark);
+            try {
+                memberExecutor.execute(() -> batch.run(run));
+            } catch (RejectedExecutionException e) {
+                batch.run(run);
+            }
+        }
+        var first = dueMembers.get(0);
+        long firstSequenceMark = sequenceMarks[0];
+        batch.run(() -> first.advanceTo(time, firstSequenceMark));
+        batch.await();
+    }
+
+    @Override
+    public ZonedDateTime now() {
+        return timeSource.now();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return timeSource.currentTimeMillis();
+    }
+
+    @Override
+    public Instant instant() {
+        return timeSource.instant();
+    }
+
+    @Override
+    public long epochNanos() {
+        return timeSource.epochNanos();
+    }
+
+    @Override
+    public long nanoTime() {
+        return timeSource.nanoTime();
+    }
+
+    @Override
+    public Clock asClock() {
+        return new TimeSourceClock(this, timeSource.zone());
+    }
+
+}
@@ -0,0 +1,63 @@
+package io.haste;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values with one bucket per power of two, so percentiles are exact up to
+ * a factor of two while recording is a single atomic increment.
+ */
+final class PowerOfTwoHistogram {
+
+    private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long value) {
+        long recorded = Math.max(value, 0);
+        buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(recorded));
+        count.increment();
+        sum.add(recorded);
+        max.accumulateAndGet(recorded, Math::max);
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    long sum() {
+        return sum.sum();
+    }
+
+    long max() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile value from 0 to 100
+     * @return upper bound of the bucket holding given percentile, never greater than the maximum, 0 when empty
+     */
+    long percentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) throw new IllegalArgumentException();
+
+        long total = 0;
+        long[] snapshot = new long[buckets.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                long upperBound = i == Long.SIZE ? Long.MAX_VALUE : (1L << i) - 1;
+                return Math.min(upperBound, max());
+            }
+        }
+        return 0;
+    }
+
+}
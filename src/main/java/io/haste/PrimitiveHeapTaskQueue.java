@@ -0,0 +1,364 @@
+package io.haste;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Binary heap of primitive arrays. One-shot tasks running a runnable from the registry are kept only as their
+ * deadline, priority, sequence number and registry id, 28 bytes per entry, without a reference to the task, so the
+ * heap cost of a pending timer does not include its future. Other tasks are kept next to their keys. Sifting
+ * compares array elements only and never dereferences the tasks.
+ * <p>
+ * A task kept without its reference is decoded into a copy when it reaches the head. The original stays in charge of
+ * it like in {@link OverflowTaskQueue}: removing the original skips the copy and the copy completes the original once
+ * someone refreshes it. Entries are polled in key order and a task is kept without its reference only if it is
+ * ordered after every polled entry, so such a task is still queued exactly when it is ordered after the last polled
+ * entry. Methods are synchronized, so the state of a task can be refreshed from other threads while one thread
+ * moves the time.
+ */
+final class PrimitiveHeapTaskQueue implements TaskQueue {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final TaskRegistry registry;
+    private final int mark = QueuedTask.newQueueMark();
+    private final Set<Long> cancelledEntries = new HashSet<>();
+    private final Map<Long, QueuedTask> refreshedEntries = new HashMap<>();
+    private long[] deadlines = new long[INITIAL_CAPACITY];
+    private int[] priorities = new int[INITIAL_CAPACITY];
+    private long[] sequences = new long[INITIAL_CAPACITY];
+    private int[] taskIds = new int[INITIAL_CAPACITY];
+    private QueuedTask[] tasks = new QueuedTask[INITIAL_CAPACITY];
+    private int size = 0;
+    private TaskCodec codec;
+    private DecodedCopies copies;
+    private boolean polled = false;
+    private long lastPolledDeadline;
+    private int lastPolledPriority;
+    private long lastPolledSequence;
+    private boolean closed = false;
+
+    /**
+     * @param registry runnables of tasks which can be kept without their reference
+     */
+    PrimitiveHeapTaskQueue(TaskRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Until the queue is attached every task is kept with its reference
+     */
+    @Override
+    public synchronized void attachTo(BlockingScheduledExecutionService owner) {
+        codec = owner.registryCodec(registry);
+        copies = new DecodedCopies(codec);
+    }
+
+    @Override
+    public synchronized void add(QueuedTask task) {
+        if (size == tasks.length) {
+            grow(size + (size >> 1));
+        }
+        int taskId = taskIdOf(task);
+        siftUp(size++, task.deadline, task.priority, task.sequence, taskId, taskId < 0 ? task : null);
+        if (taskId >= 0) {
+            task.queueIndex = mark;
+        }
+    }
+
+    /**
+     * Appends all tasks and restores the heap in O(n) time when that is cheaper than adding them one by one
+     */
+    @Override
+    public synchronized void addAll(List<? extends QueuedTask> tasks) {
+        int count = tasks.size();
+        int total = size + count;
+        if ((long) count * (Integer.SIZE - Integer.numberOfLeadingZeros(total)) <= total) {
+            for (QueuedTask task : tasks) {
+                add(task);
+            }
+            return;
+        }
+        if (total > this.tasks.length) {
+            grow(total + (total >> 1));
+        }
+        for (QueuedTask task : tasks) {
+            int taskId = taskIdOf(task);
+            place(size++, task.deadline, task.priority, task.sequence, taskId, taskId < 0 ? task : null);
+            if (taskId >= 0) {
+                task.queueIndex = mark;
+            }
+        }
+        heapify();
+    }
+
+    @Override
+    public synchronized QueuedTask peek() {
+        dropCancelledHead();
+        if (size == 0) {
+            return null;
+        }
+        return tasks[0] != null ? tasks[0] : decodeHead();
+    }
+
+    @Override
+    public synchronized QueuedTask pollDue(long time) {
+        dropCancelledHead();
+        if (size == 0 || deadlines[0] > time) {
+            return null;
+        }
+        QueuedTask task = tasks[0] != null ? tasks[0] : decodeHead();
+        if (!polled || isAfterLastPolled(deadlines[0], priorities[0], sequences[0])) {
+            polled = true;
+            lastPolledDeadline = deadlines[0];
+            lastPolledPriority = priorities[0];
+            lastPolledSequence = sequences[0];
+        }
+        removeAt(0);
+        return task;
+    }
+
+    /**
+     * Removing a task kept without its reference leaves its entry to be skipped when it reaches the head. A decoded
+     * copy which has already been polled follows the cancellation of the original, so it is skipped unless it has
+     * already started.
+     */
+    @Override
+    public synchronized boolean remove(QueuedTask task) {
+        if (task.queueIndex != mark) {
+            int index = task.queueIndex;
+            if (index < 0 || index >= size || tasks[index] != task) {
+                return false;
+            }
+            removeAt(index);
+            return true;
+        }
+        task.queueIndex = -1;
+        refreshedEntries.remove(task.sequence);
+        QueuedTask copy = copies.remove(task);
+        if (copy != null) {
+            codec.forward(copy, task);
+        }
+        if (isQueued(task)) {
+            cancelledEntries.add(task.sequence);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized void refresh(QueuedTask task) {
+        if (task.queueIndex >= -1 || task.state() != QueuedTask.PENDING) {
+            return;
+        }
+        if (task.queueIndex != mark || (closed && isQueued(task))) {
+            task.queueIndex = -1;
+            task.changeState(QueuedTask.PENDING, QueuedTask.CANCELLED);
+            return;
+        }
+        if (copies.forward(task)) {
+            return;
+        }
+        if (isQueued(task)) {
+            refreshedEntries.put(task.sequence, task);
+            return;
+        }
+        task.queueIndex = -1;
+        task.changeState(QueuedTask.PENDING, QueuedTask.COMPLETED);
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized int cancelledSize() {
+        return cancelledEntries.size();
+    }
+
+    /**
+     * Tasks kept without their reference are visited as new instances
+     */
+    @Override
+    public synchronized void forEach(Consumer<? super QueuedTask> action) {
+        for (int index = 0; index < size; index++) {
+            if (tasks[index] != null) {
+                action.accept(tasks[index]);
+            } else if (!cancelledEntries.contains(sequences[index])) {
+                action.accept(codec.decode(taskIds[index], deadlines[index], priorities[index], sequences[index]));
+            }
+        }
+    }
+
+    @Override
+    public synchronized TaskQueue emptyCopy() {
+        return new PrimitiveHeapTaskQueue(registry);
+    }
+
+    /**
+     * Drops tasks kept without their reference, their futures are cancelled once refreshed
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        int kept = 0;
+        for (int index = 0; index < size; index++) {
+            if (taskIds[index] < 0) {
+                place(kept++, deadlines[index], priorities[index], sequences[index], -1, tasks[index]);
+            }
+        }
+        Arrays.fill(tasks, kept, size, null);
+        size = kept;
+        heapify();
+        cancelledEntries.clear();
+        for (QueuedTask task : refreshedEntries.values()) {
+            task.queueIndex = -1;
+            task.changeState(QueuedTask.PENDING, QueuedTask.CANCELLED);
+        }
+        refreshedEntries.clear();
+        if (copies != null) {
+            copies.clear();
+        }
+    }
+
+    /**
+     * @return id of the task if it can be kept without its reference, otherwise -1
+     */
+    private int taskIdOf(QueuedTask task) {
+        if (codec == null || closed || (polled && !isAfterLastPolled(task.deadline, task.priority, task.sequence))) {
+            return -1;
+        }
+        return codec.taskId(task);
+    }
+
+    private boolean isQueued(QueuedTask task) {
+        return !polled || isAfterLastPolled(task.deadline, task.priority, task.sequence);
+    }
+
+    private boolean isAfterLastPolled(long deadline, int priority, long sequence) {
+        if (deadline != lastPolledDeadline) {
+            return deadline > lastPolledDeadline;
+        }
+        if (priority != lastPolledPriority) {
+            return priority < lastPolledPriority;
+        }
+        return sequence > lastPolledSequence;
+    }
+
+    private void dropCancelledHead() {
+        while (size > 0 && taskIds[0] >= 0 && !cancelledEntries.isEmpty() && cancelledEntries.remove(sequences[0])) {
+            removeAt(0);
+        }
+    }
+
+    private QueuedTask decodeHead() {
+        QueuedTask copy = codec.decode(taskIds[0], deadlines[0], priorities[0], sequences[0]);
+        copies.add(copy);
+        QueuedTask original = refreshedEntries.remove(copy.sequence);
+        if (original != null) {
+            codec.forward(copy, original);
+        }
+        tasks[0] = copy;
+        return copy;
+    }
+
+    private void grow(int capacity) {
+        deadlines = Arrays.copyOf(deadlines, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        sequences = Arrays.copyOf(sequences, capacity);
+        taskIds = Arrays.copyOf(taskIds, capacity);
+        tasks = Arrays.copyOf(tasks, capacity);
+    }
+
+    private void heapify() {
+        for (int index = (size >>> 1) - 1; index >= 0; index--) {
+            siftDown(index, deadlines[index], priorities[index], sequences[index], taskIds[index], tasks[index]);
+        }
+    }
+
+    private void removeAt(int index) {
+        QueuedTask removed = tasks[index];
+        int last = --size;
+        long movedDeadline = deadlines[last];
+        int movedPriority = priorities[last];
+        long movedSequence = sequences[last];
+        int movedTaskId = taskIds[last];
+        QueuedTask moved = tasks[last];
+        tasks[last] = null;
+        if (index != last) {
+            siftDown(index, movedDeadline, movedPriority, movedSequence, movedTaskId, moved);
+            if (sequences[index] == movedSequence) {
+                siftUp(index, movedDeadline, movedPriority, movedSequence, movedTaskId, moved);
+            }
+        }
+        if (removed != null && removed.queueIndex == index) {
+            removed.queueIndex = -1;
+        }
+    }
+
+    private void siftUp(int index, long deadline, int priority, long sequence, int taskId, QueuedTask task) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isBefore(deadline, priority, sequence, parent)) {
+                break;
+            }
+            place(index, deadlines[parent], priorities[parent], sequences[parent], taskIds[parent], tasks[parent]);
+            index = parent;
+        }
+        place(index, deadline, priority, sequence, taskId, task);
+    }
+
+    private void siftDown(int index, long deadline, int priority, long sequence, int taskId, QueuedTask task) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && isBefore(deadlines[right], priorities[right], sequences[right], child)) {
+                child = right;
+            }
+            if (isBefore(deadline, priority, sequence, child)) {
+                break;
+            }
+            place(index, deadlines[child], priorities[child], sequences[child], taskIds[child], tasks[child]);
+            index = child;
+        }
+        place(index, deadline, priority, sequence, taskId, task);
+    }
+
+    /**
+     * Only tasks kept with their reference track their index, decoded copies are removed through their originals
+     */
+    private void place(int index, long deadline, int priority, long sequence, int taskId, QueuedTask task) {
+        deadlines[index] = deadline;
+        priorities[index] = priority;
+        sequences[index] = sequence;
+        taskIds[index] = taskId;
+        tasks[index] = task;
+        if (task != null && taskId < 0) {
+            task.queueIndex = index;
+        }
+    }
+
+    /**
+     * Same order as {@link QueuedTask#compare}, sequence numbers are unique so entries are never equal
+     */
+    private boolean isBefore(long deadline, int priority, long sequence, int index) {
+        if (deadline != deadlines[index]) {
+            return deadline < deadlines[index];
+        }
+        if (priority != priorities[index]) {
+            return priority > priorities[index];
+        }
+        return sequence < sequences[index];
+    }
+
+}
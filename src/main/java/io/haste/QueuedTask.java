@@ -0,0 +1,149 @@
+package io.haste;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Task stored in a {@link TaskQueue}. Tasks are ordered by deadline, then by priority, higher first, then by sequence
+ * number, so tasks sharing a deadline and priority run in scheduling order. Fields besides {@code deadline},
+ * {@code priority} and {@code sequence} are owned by the queue implementation which currently holds the task.
+ * Threads waiting for the task to leave the pending state are parked and woken by the state change.
+ */
+abstract class QueuedTask {
+
+    static final int PENDING = 0;
+    static final int COMPLETED = 1;
+    static final int CANCELLED = 2;
+
+    private static final AtomicIntegerFieldUpdater<QueuedTask> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(QueuedTask.class, "state");
+
+    private static final AtomicReferenceFieldUpdater<QueuedTask, WaitNode> WAITERS =
+            AtomicReferenceFieldUpdater.newUpdater(QueuedTask.class, WaitNode.class, "waiters");
+
+    private static final AtomicInteger QUEUE_MARKS = new AtomicInteger(-3);
+
+    private volatile int state = PENDING;
+    private volatile WaitNode waiters;
+
+    long deadline;
+    int priority;
+    long sequence;
+
+    int queueIndex = -1;
+    QueuedTask previous;
+    QueuedTask next;
+
+    QueuedTask(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * @return {@code queueIndex} value, unique to the calling queue, for tasks which the queue replaced with copies.
+     * Values -1 and -2 are left to queues for their own use.
+     */
+    static int newQueueMark() {
+        return QUEUE_MARKS.getAndDecrement();
+    }
+
+    static int compare(QueuedTask first, QueuedTask second) {
+        if (first.deadline != second.deadline) {
+            return first.deadline < second.deadline ? -1 : 1;
+        }
+        if (first.priority != second.priority) {
+            return first.priority > second.priority ? -1 : 1;
+        }
+        return Long.compare(first.sequence, second.sequence);
+    }
+
+    final int state() {
+        return state;
+    }
+
+    final boolean changeState(int expected, int newState) {
+        if (!STATE.compareAndSet(this, expected, newState)) {
+            return false;
+        }
+        if (waiters != null) {
+            wakeWaiters();
+        }
+        return true;
+    }
+
+    /**
+     * @param timed whether to give up after {@code timeoutInNanos} of real time
+     * @return state of the task, pending only if the wait timed out
+     */
+    final int awaitDone(boolean timed, long timeoutInNanos) throws InterruptedException {
+        long deadline = timed ? System.nanoTime() + timeoutInNanos : 0;
+        WaitNode node = null;
+        while (true) {
+            int current = state;
+            if (current != PENDING) {
+                if (node != null) {
+                    node.thread = null;
+                }
+                return current;
+            }
+            if (Thread.interrupted()) {
+                if (node != null) {
+                    node.thread = null;
+                }
+                throw new InterruptedException();
+            }
+            if (node == null) {
+                node = new WaitNode();
+                do {
+                    node.next = firstLiveWaiter();
+                } while (!WAITERS.compareAndSet(this, node.next, node));
+            } else if (!timed) {
+                LockSupport.park(this);
+            } else {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    node.thread = null;
+                    return PENDING;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+        }
+    }
+
+    /**
+     * Drops waiters which gave up from the top of the stack, so repeated timed waits do not pile up
+     */
+    private WaitNode firstLiveWaiter() {
+        WaitNode first = waiters;
+        while (first != null && first.thread == null) {
+            WaitNode next = first.next;
+            if (WAITERS.compareAndSet(this, first, next)) {
+                first = next;
+            } else {
+                first = waiters;
+            }
+        }
+        return first;
+    }
+
+    private void wakeWaiters() {
+        for (WaitNode node = WAITERS.getAndSet(this, null); node != null; node = node.next) {
+            Thread thread = node.thread;
+            if (thread != null) {
+                node.thread = null;
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    abstract boolean isCancelled();
+
+    abstract void run();
+
+    private static final class WaitNode {
+        volatile Thread thread = Thread.currentThread();
+        WaitNode next;
+    }
+
+}
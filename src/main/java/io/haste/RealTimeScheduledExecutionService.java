@@ -0,0 +1,295 @@
+package io.haste;
+
+import java.lang.reflect.Method;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Production {@link ScheduledExecutorServiceWithTimeSource}. A single timer thread only tracks deadlines, fired tasks
+ * are handed over to the task executor so tasks blocking on I/O do not delay other timers.
+ */
+final class RealTimeScheduledExecutionService extends AbstractExecutorService implements ScheduledExecutorServiceWithTimeSource {
+
+    private final Clock clock;
+    private final ScheduledThreadPoolExecutor timer;
+    private final ExecutorService taskExecutor;
+    private final Set<DispatchedFuture<?>> notFiredFutures = ConcurrentHashMap.newKeySet();
+
+    RealTimeScheduledExecutionService(Clock clock, ExecutorService taskExecutor) {
+        Objects.requireNonNull(clock);
+        Objects.requireNonNull(taskExecutor);
+        this.clock = clock;
+        this.taskExecutor = taskExecutor;
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "haste-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        timer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        timer.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * @return executor starting a virtual thread per task when run on JDK with virtual threads, otherwise cached
+     * pool of daemon threads
+     */
+    static ExecutorService newTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "haste-task");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable runnable, long delay, TimeUnit timeUnit) {
+        Objects.requireNonNull(runnable);
+        Objects.requireNonNull(timeUnit);
+
+        return scheduleOnTimer(new DispatchedFuture<>(Executors.callable(runnable)),
+                future -> timer.schedule(future::dispatch, delay, timeUnit));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit timeUnit) {
+        Objects.requireNonNull(callable);
+        Objects.requireNonNull(timeUnit);
+
+        return scheduleOnTimer(new DispatchedFuture<>(callable),
+                future -> timer.schedule(future::dispatch, delay, timeUnit));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable runnable, long initialDelay, long period, TimeUnit timeUnit) {
+        Objects.requireNonNull(runnable);
+        if (period <= 0) throw new IllegalArgumentException();
+        Objects.requireNonNull(timeUnit);
+
+        var future = scheduleOnTimer(new FixedRateFuture(runnable),
+                scheduled -> timer.scheduleAtFixedRate(scheduled::dispatch, initialDelay, period, timeUnit));
+        future.cancelTimerIfDone();
+        return future;
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable runnable, long initialDelay, long delay, TimeUnit timeUnit) {
+        Objects.requireNonNull(runnable);
+        if (delay <= 0) throw new IllegalArgumentException();
+        Objects.requireNonNull(timeUnit);
+
+        return scheduleOnTimer(new FixedDelayFuture(runnable, timeUnit.toNanos(delay)),
+                future -> timer.schedule(future::dispatch, initialDelay, timeUnit));
+    }
+
+    /**
+     * The future is tracked before it reaches the timer, so shutdown racing with scheduling still cancels it
+     */
+    private <F extends DispatchedFuture<?>> F scheduleOnTimer(F future, Function<F, ScheduledFuture<?>> scheduling) {
+        notFiredFutures.add(future);
+        try {
+            future.timerFuture = scheduling.apply(future);
+        } catch (RejectedExecutionException e) {
+            notFiredFutures.remove(future);
+            throw e;
+        }
+        return future;
+    }
+
+    @Override
+    public ZonedDateTime now() {
+        return ZonedDateTime.now(clock);
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return clock.millis();
+    }
+
+    @Override
+    public Instant instant() {
+        return clock.instant();
+    }
+
+    @Override
+    public Clock asClock() {
+        return clock;
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void execute(Runnable runnable) {
+        taskExecutor.execute(runnable);
+    }
+
+    /**
+     * Pending delayed and periodic tasks are dropped and their futures cancelled, tasks which have already been fired
+     * are completed.
+     */
+    @Override
+    public void shutdown() {
+        timer.shutdown();
+        cancelNotFiredFutures();
+        taskExecutor.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> notStarted = new ArrayList<>(timer.shutdownNow());
+        cancelNotFiredFutures();
+        notStarted.addAll(taskExecutor.shutdownNow());
+        return notStarted;
+    }
+
+    private void cancelNotFiredFutures() {
+        for (DispatchedFuture<?> future : notFiredFutures) {
+            future.cancel(false);
+        }
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return timer.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return timer.isTerminated() && taskExecutor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit timeUnit) throws InterruptedException {
+        long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+        return timer.awaitTermination(timeout, timeUnit)
+                && taskExecutor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    private class DispatchedFuture<V> extends FutureTask<V> implements ScheduledFuture<V> {
+
+        volatile ScheduledFuture<?> timerFuture;
+
+        private DispatchedFuture(Callable<V> callable) {
+            super(callable);
+        }
+
+        void dispatch() {
+            notFiredFutures.remove(this);
+            try {
+                taskExecutor.execute(this);
+            } catch (RejectedExecutionException e) {
+                cancel(false);
+            }
+        }
+
+        void cancelTimerIfDone() {
+            if (isDone()) {
+                timerFuture.cancel(false);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            ScheduledFuture<?> current = timerFuture;
+            if (current != null) {
+                current.cancel(false);
+            }
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        protected void done() {
+            notFiredFutures.remove(this);
+        }
+
+        @Override
+        public long getDelay(TimeUnit timeUnit) {
+            return timerFuture.getDelay(timeUnit);
+        }
+
+        @Override
+        public int compareTo(Delayed delayed) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), delayed.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    /**
+     * Runs are never concurrent, ticks fired while the previous run is still in progress are run right after it.
+     * Periodic futures are fired until cancelled, so shutdown cancels them even after the first run.
+     */
+    private class FixedRateFuture extends DispatchedFuture<Void> {
+
+        private final AtomicInteger pendingRuns = new AtomicInteger();
+
+        private FixedRateFuture(Runnable runnable) {
+            super(Executors.callable(runnable, null));
+        }
+
+        @Override
+        void dispatch() {
+            if (pendingRuns.getAndIncrement() == 0) {
+                try {
+                    taskExecutor.execute(this::runPending);
+                } catch (RejectedExecutionException e) {
+                    cancel(false);
+                }
+            }
+        }
+
+        private void runPending() {
+            do {
+                if (!runAndReset()) {
+                    cancelTimerIfDone();
+                    return;
+                }
+            } while (pendingRuns.decrementAndGet() > 0);
+        }
+    }
+
+    private class FixedDelayFuture extends DispatchedFuture<Void> {
+
+        private final long delayInNanos;
+
+        private FixedDelayFuture(Runnable runnable, long delayInNanos) {
+            super(Executors.callable(runnable, null));
+            this.delayInNanos = delayInNanos;
+        }
+
+        @Override
+        void dispatch() {
+            try {
+                taskExecutor.execute(this::runAndReschedule);
+            } catch (RejectedExecutionException e) {
+                cancel(false);
+            }
+        }
+
+        private void runAndReschedule() {
+            if (runAndReset()) {
+                try {
+                    timerFuture = timer.schedule(this::dispatch, delayInNanos, TimeUnit.NANOSECONDS);
+                    cancelTimerIfDone();
+                } catch (RejectedExecutionException e) {
+                    cancel(false);
+                }
+            }
+        }
+    }
+
+}
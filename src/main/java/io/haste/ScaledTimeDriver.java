@@ -0,0 +1,66 @@
+package io.haste;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Background thread running tasks of an executor whose time flows at a multiple of the wall-clock speed. Between
+ * runs the thread parks until the wall-clock moment of the next deadline, scheduling and shutdown wake it up. On
+ * shutdown the thread cancels the pending tasks, as nothing would run them anymore.
+ */
+final class ScaledTimeDriver implements Runnable {
+
+    private static final Logger LOGGER = Logger.getLogger(ScaledTimeDriver.class.getName());
+
+    private final BlockingScheduledExecutionService executorService;
+    private final StandaloneMovableTimeSource timeSource;
+    private final Thread thread;
+
+    private ScaledTimeDriver(BlockingScheduledExecutionService executorService, StandaloneMovableTimeSource timeSource) {
+        this.executorService = executorService;
+        this.timeSource = timeSource;
+        this.thread = new Thread(this, "haste-scaled-time");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * @param timeSource time source flowing by itself, used by given executor
+     */
+    static void start(BlockingScheduledExecutionService executorService, StandaloneMovableTimeSource timeSource) {
+        var driver = new ScaledTimeDriver(executorService, timeSource);
+        executorService.setChangeObserver(() -> LockSupport.unpark(driver.thread));
+        driver.thread.start();
+    }
+
+    @Override
+    public void run() {
+        while (!executorService.isShutdown()) {
+            try {
+                executorService.advanceTo(timeSource.epochNanos());
+            } catch (Throwable t) {
+                LOGGER.log(Level.SEVERE, t::getMessage);
+            }
+            QueuedTask next = executorService.peekTask();
+            if (executorService.isShutdown()) {
+                break;
+            }
+            if (next == null) {
+                LockSupport.park(this);
+            } else {
+                parkUntil(next.deadline);
+            }
+        }
+        executorService.dropPendingTasks();
+    }
+
+    private void parkUntil(long deadline) {
+        long now = timeSource.epochNanos();
+        if (deadline <= now) {
+            return;
+        }
+        long remaining = deadline - now;
+        LockSupport.parkNanos(this, timeSource.wallNanosFor(remaining < 0 ? Long.MAX_VALUE : remaining));
+    }
+
+}
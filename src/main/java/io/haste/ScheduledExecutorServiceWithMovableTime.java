@@ -1,10 +1,18 @@
 package io.haste;
 
 import java.time.Duration;
-import java.util.concurrent.ScheduledExecutorService;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
-public interface ScheduledExecutorServiceWithMovableTime extends MovableTimeSource, ScheduledExecutorService {
+public interface ScheduledExecutorServiceWithMovableTime extends MovableTimeSource, ScheduledExecutorServiceWithTimeSource {
 
 
     /**
@@ -23,4 +31,170 @@ public interface ScheduledExecutorServiceWithMovableTime extends MovableTimeSour
      */
     @Override
     void advanceTimeBy(Duration duration);
+
+    /**
+     * Schedules runnable with given priority. Tasks sharing a deadline run in priority order, higher first, and
+     * in scheduling order within the same priority. Tasks scheduled without priority have priority 0.
+     *
+     * @param runnable task to schedule
+     * @param delay    delay of the task
+     * @param timeUnit time unit of delay
+     * @param priority priority among tasks with the same deadline
+     * @return future of the task
+     */
+    ScheduledFuture<?> schedule(Runnable runnable, long delay, TimeUnit timeUnit, int priority);
+
+    /**
+     * Schedules callable with given priority. Tasks sharing a deadline run in priority order, higher first, and
+     * in scheduling order within the same priority. Tasks scheduled without priority have priority 0.
+     *
+     * @param callable task to schedule
+     * @param delay    delay of the task
+     * @param timeUnit time unit of delay
+     * @param priority priority among tasks with the same deadline
+     * @param <V>      result type of callable
+     * @return future of the task
+     */
+    <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit timeUnit, int priority);
+
+    /**
+     * Schedules runnable and returns future completed when it has been run, so dependent work can be chained instead
+     * of polling. Dependent stages are run by the thread moving the time. Cancelling the future cancels the task.
+     *
+     * @param runnable task to schedule
+     * @param delay    delay of the task
+     * @param timeUnit time unit of delay
+     * @return future completed with null after the run or exceptionally with exception thrown by runnable
+     */
+    CompletableFuture<Void> scheduleAsync(Runnable runnable, long delay, TimeUnit timeUnit);
+
+    /**
+     * Schedules callable and returns future completed with its result, so dependent work can be chained instead
+     * of polling. Dependent stages are run by the thread moving the time. Cancelling the future cancels the task.
+     *
+     * @param callable task to schedule
+     * @param delay    delay of the task
+     * @param timeUnit time unit of delay
+     * @param <V>      result type of callable
+     * @return future completed with result of callable or exceptionally with exception thrown by it
+     */
+    <V> CompletableFuture<V> scheduleAsync(Callable<V> callable, long delay, TimeUnit timeUnit);
+
+    /**
+     * Schedules all runnables at once, which is faster than scheduling them one by one. Arguments are validated
+     * before anything is scheduled.
+     *
+     * @param runnables tasks to schedule
+     * @param delays    delay of every task, in iteration order of runnables
+     * @param timeUnit  time unit of delays
+     * @return futures in iteration order of runnables
+     */
+    List<ScheduledFuture<?>> scheduleAll(Collection<? extends Runnable> runnables, long[] delays, TimeUnit timeUnit);
+
+    /**
+     * Schedules all callables at once, which is faster than scheduling them one by one. Arguments are validated
+     * before anything is scheduled.
+     *
+     * @param callables tasks to schedule
+     * @param delays    delay of every task, in iteration order of callables
+     * @param timeUnit  time unit of delays
+     * @param <V>       result type of callables
+     * @return futures in iteration order of callables
+     */
+    <V> List<ScheduledFuture<V>> scheduleAllCallables(Collection<? extends Callable<V>> callables, long[] delays, TimeUnit timeUnit);
+
+    /**
+     * Provides publisher of ticks emitted as the time is moved. Every subscriber gets its own fixed-rate task, first
+     * tick is emitted one period after subscribing. Ticks fired without subscriber demand are never buffered beyond
+     * the latest one, see {@link TickOverflowPolicy}.
+     *
+     * @param period         time between ticks
+     * @param overflowPolicy what to do with ticks fired without demand
+     * @return publisher of the time of every tick
+     */
+    Flow.Publisher<Instant> ticks(Duration period, TickOverflowPolicy overflowPolicy);
+
+    /**
+     * Provides the deadline of the earliest scheduled task without running anything
+     *
+     * @return deadline of the next task or empty if there is no scheduled task
+     */
+    Optional<ZonedDateTime> nextDeadline();
+
+    /**
+     * Move internal clock straight to the deadline of the earliest scheduled task and trigger all tasks due at that time
+     *
+     * @return false if there was no scheduled task and the clock has not been moved
+     */
+    boolean advanceToNextTask();
+
+    /**
+     * Trigger scheduled tasks in deadline order, moving internal clock to every deadline, until there are no tasks
+     * due within given time. The clock is left at the deadline of the last triggered task.
+     *
+     * @param timeLimit how far the clock can be moved
+     * @return number of triggered tasks
+     */
+    int runUntilIdle(Duration timeLimit);
+
+    /**
+     * Trigger scheduled tasks in deadline order, moving internal clock to every deadline, until there are no tasks
+     * due within given time or given number of tasks has been triggered. The clock is left at the deadline of the
+     * last triggered task.
+     *
+     * @param timeLimit how far the clock can be moved
+     * @param taskLimit maximal number of tasks to trigger, may be exceeded by tasks of the last deadline when tasks
+     *                  sharing a deadline are run in parallel
+     * @return number of triggered tasks
+     */
+    int runUntilIdle(Duration timeLimit, int taskLimit);
+
+    /**
+     * Cancelled tasks are removed from the queue right away, so they are not counted here. When tasks are scheduled
+     * from many threads the value is approximate.
+     *
+     * @return number of scheduled tasks waiting for their time
+     */
+    int pendingTaskCount();
+
+    /**
+     * Cancelled tasks are removed right away, except for thread-safe instances which remove them the next time
+     * the time is moved and count them here until then.
+     *
+     * @return number of cancelled tasks which are still held by the queue
+     */
+    int cancelledTaskCount();
+
+    /**
+     * Captures the time and all pending tasks. Has to be called by the thread moving the time.
+     *
+     * @return immutable snapshot which can be restored or forked any number of times
+     */
+    SchedulerSnapshot snapshot();
+
+    /**
+     * Moves the time, also backwards, and replaces pending tasks with copies of tasks from the snapshot. Tasks
+     * pending before the call are cancelled. Futures returned before the snapshot do not control the copies.
+     * Has to be called by the thread moving the time while no other thread schedules tasks, tasks scheduled
+     * concurrently may be lost.
+     *
+     * @param snapshot state to restore
+     */
+    void restore(SchedulerSnapshot snapshot);
+
+    /**
+     * Creates an independent executor, of the same kind as this one, starting from the snapshot. Runnables and
+     * callables are shared with this executor, only the futures holding them are copied.
+     *
+     * @param snapshot state to start from
+     * @return new executor with the time and pending tasks of the snapshot
+     */
+    ScheduledExecutorServiceWithMovableTime fork(SchedulerSnapshot snapshot);
+
+    /**
+     * Attaches listener receiving scheduling, run and time events. Without a listener no event is measured.
+     *
+     * @param listener listener to attach or null to detach the current one
+     */
+    void setMetricsListener(SchedulerMetricsListener listener);
 }
@@ -0,0 +1,9 @@
+package io.haste;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * {@link ScheduledExecutorService} which is also the source of the time used to trigger scheduled actions
+ */
+public interface ScheduledExecutorServiceWithTimeSource extends TimeSource, ScheduledExecutorService {
+}
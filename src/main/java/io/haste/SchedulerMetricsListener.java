@@ -0,0 +1,53 @@
+package io.haste;
+
+/**
+ * Receives events of a {@link ScheduledExecutorServiceWithMovableTime}. Events are reported on the thread which
+ * caused them and tasks sharing a deadline may be run in parallel, so implementations have to be thread-safe.
+ * See {@link InMemorySchedulerMetrics} for a ready-made implementation.
+ */
+public interface SchedulerMetricsListener {
+
+    /**
+     * Called after tasks have been scheduled. Periodic tasks are reported once, not on every re-arm.
+     *
+     * @param count      number of scheduled tasks
+     * @param queueDepth number of tasks waiting for their time after scheduling
+     */
+    default void tasksScheduled(int count, int queueDepth) {
+    }
+
+    /**
+     * Called after a pending task has been cancelled
+     */
+    default void taskCancelled() {
+    }
+
+    /**
+     * Called after every run of a task, including failed ones
+     *
+     * @param task           scheduled runnable or callable
+     * @param runTimeInNanos wall-clock time of the run
+     */
+    default void taskRun(Object task, long runTimeInNanos) {
+    }
+
+    /**
+     * Called when a task has thrown an exception
+     *
+     * @param task  scheduled runnable or callable
+     * @param cause thrown exception
+     */
+    default void taskFailed(Object task, Throwable cause) {
+    }
+
+    /**
+     * Called after every call moving the time, not reported when a task has thrown an exception
+     *
+     * @param advancedInNanos virtual time the clock has been moved by
+     * @param runTasks        number of tasks run while moving the clock
+     * @param queueDepth      number of tasks waiting for their time after moving the clock
+     */
+    default void timeAdvanced(long advancedInNanos, int runTasks, int queueDepth) {
+    }
+
+}
@@ -0,0 +1,72 @@
+package io.haste;
+
+import java.time.Instant;
+import java.util.concurrent.Callable;
+
+/**
+ * Immutable state of a {@link ScheduledExecutorServiceWithMovableTime}: its time and pending tasks. Executors
+ * restored or forked from a snapshot get their own futures, while runnables and callables are shared by all of them,
+ * so tasks should not keep state which has to differ between branches.
+ */
+public final class SchedulerSnapshot {
+
+    final long epochNanos;
+    final long nextSequence;
+    final PendingTask[] tasks;
+
+    SchedulerSnapshot(long epochNanos, long nextSequence, PendingTask[] tasks) {
+        this.epochNanos = epochNanos;
+        this.nextSequence = nextSequence;
+        this.tasks = tasks;
+    }
+
+    /**
+     * @return time of the snapshot
+     */
+    public Instant instant() {
+        return EpochNanos.toInstant(epochNanos);
+    }
+
+    /**
+     * @return number of tasks pending at the time of the snapshot
+     */
+    public int pendingTaskCount() {
+        return tasks.length;
+    }
+
+    /**
+     * What is needed to schedule a pending task again. It holds no future, so a snapshot does not keep the executor
+     * it was taken from or futures of its callers alive.
+     */
+    static final class PendingTask {
+
+        static final int RUNNABLE = 0;
+        static final int CALLABLE = 1;
+        static final int ASYNC = 2;
+        static final int FIXED_RATE = 3;
+        static final int FIXED_DELAY = 4;
+
+        final int kind;
+        final Object task;
+        final Callable<?> callable;
+        final long periodInNanos;
+        final long deadline;
+        final int priority;
+        final long sequence;
+
+        /**
+         * @param task     runnable or callable the task was scheduled with
+         * @param callable callable run by the task, null for tasks running a runnable
+         */
+        PendingTask(int kind, Object task, Callable<?> callable, long periodInNanos, QueuedTask queued) {
+            this.kind = kind;
+            this.task = task;
+            this.callable = callable;
+            this.periodInNanos = periodInNanos;
+            this.deadline = queued.deadline;
+            this.priority = queued.priority;
+            this.sequence = queued.sequence;
+        }
+    }
+
+}
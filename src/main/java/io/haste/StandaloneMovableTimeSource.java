@@ -2,40 +2,133 @@ package io.haste;
 
 import java.time.Clock;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
+/**
+ * Time is kept as a single atomic offset from the base instant, so it can be moved from many threads and read
+ * without locks or allocation. Optionally the time also flows by itself at a multiple of the wall-clock speed.
+ * Supports instants from 1677 to 2262, see {@link EpochNanos}, moving the time further stops at the end of the range.
+ */
 final class StandaloneMovableTimeSource implements MovableTimeSource {
 
-    private Clock clock;
+    private static final AtomicLongFieldUpdater<StandaloneMovableTimeSource> OFFSET =
+            AtomicLongFieldUpdater.newUpdater(StandaloneMovableTimeSource.class, "offsetInNanos");
+
+    private final ZoneId zone;
+    private final long baseEpochNanos;
+    private final long speedFactor;
+    private final long startNanoTime;
+    private volatile long offsetInNanos = 0;
 
     StandaloneMovableTimeSource(Clock clock) {
+        this(clock, 0);
+    }
+
+    /**
+     * @param speedFactor virtual nanoseconds passing in every wall-clock nanosecond or 0 if the time moves only
+     *                    when it is moved explicitly
+     * @throws IllegalArgumentException if the instant of given clock is outside of the supported range
+     */
+    StandaloneMovableTimeSource(Clock clock, long speedFactor) {
         Objects.requireNonNull(clock);
-        this.clock = Clock.fixed(clock.instant(), clock.getZone());
+        if (speedFactor < 0) throw new IllegalArgumentException();
+        this.zone = clock.getZone();
+        this.baseEpochNanos = EpochNanos.of(clock.instant());
+        this.speedFactor = speedFactor;
+        this.startNanoTime = speedFactor == 0 ? 0 : System.nanoTime();
     }
 
     @Override
     public ZonedDateTime now() {
-        return ZonedDateTime.now(clock);
+        return ZonedDateTime.ofInstant(instant(), zone);
     }
 
     public void advanceTimeBy(long delayTime, TimeUnit timeUnit) {
         if (delayTime < 0) throw new IllegalArgumentException();
         Objects.requireNonNull(timeUnit);
 
-        Duration duration = Duration.ofNanos(timeUnit.toNanos(delayTime));
-        advanceTimeBy(duration);
+        moveBy(timeUnit.toNanos(delayTime));
     }
 
     public void advanceTimeBy(Duration duration) {
-        clock = Clock.fixed(Clock.offset(clock, duration).instant(), clock.getZone());
+        if (duration.isNegative()) throw new IllegalArgumentException();
+
+        moveBy(EpochNanos.toNanosSaturated(duration));
+    }
+
+    /**
+     * The offset may wrap around, only the sum with the base time is kept within the range
+     */
+    private void moveBy(long nanos) {
+        long offset;
+        do {
+            offset = offsetInNanos;
+        } while (!OFFSET.compareAndSet(this, offset, EpochNanos.plus(baseEpochNanos + offset, nanos) - baseEpochNanos));
     }
 
     @Override
     public long currentTimeMillis() {
-        return clock.millis();
+        return EpochNanos.toMillis(epochNanos());
+    }
+
+    @Override
+    public Instant instant() {
+        return EpochNanos.toInstant(epochNanos());
+    }
+
+    @Override
+    public long epochNanos() {
+        if (speedFactor == 0) {
+            return baseEpochNanos + offsetInNanos;
+        }
+        return EpochNanos.plus(baseEpochNanos + offsetInNanos, flownNanos());
+    }
+
+    @Override
+    public long nanoTime() {
+        return epochNanos();
+    }
+
+    @Override
+    public Clock asClock() {
+        return new TimeSourceClock(this, zone);
+    }
+
+    /**
+     * Sets the time, also backwards
+     */
+    void setEpochNanos(long epochNanos) {
+        offsetInNanos = epochNanos - baseEpochNanos - (speedFactor == 0 ? 0 : flownNanos());
+    }
+
+    /**
+     * @return whether the time passes by itself
+     */
+    boolean flows() {
+        return speedFactor != 0;
+    }
+
+    /**
+     * @param virtualNanos amount of virtual time from now
+     * @return wall-clock nanoseconds until given amount of virtual time passes by itself, rounded up
+     */
+    long wallNanosFor(long virtualNanos) {
+        if (speedFactor == 0) throw new IllegalStateException();
+        return virtualNanos / speedFactor + (virtualNanos % speedFactor == 0 ? 0 : 1);
+    }
+
+    private long flownNanos() {
+        long elapsed = System.nanoTime() - startNanoTime;
+        return elapsed > Long.MAX_VALUE / speedFactor ? Long.MAX_VALUE : elapsed * speedFactor;
+    }
+
+    ZoneId zone() {
+        return zone;
     }
 
 }
@@ -1,6 +1,7 @@
 package io.haste;
 
 import java.time.Clock;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 
 final class SystemTimeSource implements TimeSource {
@@ -17,4 +18,19 @@ final class SystemTimeSource implements TimeSource {
         return System.currentTimeMillis();
     }
 
+    @Override
+    public Instant instant() {
+        return clock.instant();
+    }
+
+    @Override
+    public Clock asClock() {
+        return clock;
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
 }
@@ -0,0 +1,29 @@
+package io.haste;
+
+/**
+ * Converts tasks to plain numbers and back, so they can be stored outside of the heap
+ */
+interface TaskCodec {
+
+    /**
+     * @return id of the task or -1 if the task cannot be converted
+     */
+    int taskId(QueuedTask task);
+
+    /**
+     * @return new pending task equal to the converted one
+     */
+    QueuedTask decode(int taskId, long deadline, int priority, long sequence);
+
+    /**
+     * Makes the original task, which was converted, complete together with its decoded copy
+     */
+    void forward(QueuedTask copy, QueuedTask original);
+
+    /**
+     * @return whether the decoded copy has been cancelled or has completed without a failure, so an original
+     * refreshed later can be completed without it
+     */
+    boolean canForget(QueuedTask copy);
+
+}
@@ -0,0 +1,78 @@
+package io.haste;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Pending tasks of {@link BlockingScheduledExecutionService} ordered by their deadlines
+ */
+interface TaskQueue {
+
+    void add(QueuedTask task);
+
+    default void addAll(List<? extends QueuedTask> tasks) {
+        for (QueuedTask task : tasks) {
+            add(task);
+        }
+    }
+
+    /**
+     * @return the task with the earliest deadline or null if the queue is empty
+     */
+    QueuedTask peek();
+
+    /**
+     * Removes the task with the earliest deadline if that deadline is not after given time
+     *
+     * @param time time in epoch nanoseconds
+     * @return the earliest task or null if there is no task due at given time
+     */
+    QueuedTask pollDue(long time);
+
+    /**
+     * @return true if the task was in the queue and has been removed
+     */
+    boolean remove(QueuedTask task);
+
+    /**
+     * Brings the state of a task, which the queue replaced with a copy, up to date with the copy. Called before the
+     * state of the task is read or changed by its owner.
+     */
+    default void refresh(QueuedTask task) {
+    }
+
+    /**
+     * @return number of tasks held by the queue, including cancelled tasks which are not removed yet
+     */
+    int size();
+
+    /**
+     * @return number of cancelled tasks which are still held by the queue
+     */
+    default int cancelledSize() {
+        return 0;
+    }
+
+    /**
+     * Visits every held task in no particular order. The queue must not be modified by given action.
+     */
+    void forEach(Consumer<? super QueuedTask> action);
+
+    /**
+     * @return new empty queue of the same kind and configuration, it has to be attached to its executor
+     */
+    TaskQueue emptyCopy();
+
+    /**
+     * Called by the executor which takes the queue, before any task is added
+     */
+    default void attachTo(BlockingScheduledExecutionService owner) {
+    }
+
+    /**
+     * Releases resources held by the queue. Tasks which need those resources are dropped, the rest stay queued.
+     */
+    default void close() {
+    }
+
+}
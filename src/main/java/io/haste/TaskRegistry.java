@@ -0,0 +1,55 @@
+package io.haste;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Runnables registered under unique keys. Tasks scheduled with a registered runnable can be moved out of memory by
+ * an executor with an overflow file, because they are identified there by a number instead of a reference.
+ */
+public final class TaskRegistry {
+
+    private final Map<String, Integer> idsByKey = new ConcurrentHashMap<>();
+    private final Map<Runnable, Integer> idsByTask = new ConcurrentHashMap<>();
+    private final List<Runnable> tasks = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param key  unique key of the task
+     * @param task runnable, registered only once
+     */
+    public synchronized void register(String key, Runnable task) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(task);
+        if (idsByKey.containsKey(key) || idsByTask.containsKey(task)) throw new IllegalArgumentException();
+
+        int id = tasks.size();
+        tasks.add(task);
+        idsByTask.put(task, id);
+        idsByKey.put(key, id);
+    }
+
+    /**
+     * @param key key of the task
+     * @return runnable registered under given key or null
+     */
+    public Runnable task(String key) {
+        Integer id = idsByKey.get(key);
+        return id == null ? null : tasks.get(id);
+    }
+
+    /**
+     * @return id of given runnable or -1 if it is not registered
+     */
+    int idOf(Runnable task) {
+        Integer id = idsByTask.get(task);
+        return id == null ? -1 : id;
+    }
+
+    Runnable taskOf(int id) {
+        return tasks.get(id);
+    }
+
+}
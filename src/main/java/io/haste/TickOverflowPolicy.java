@@ -0,0 +1,18 @@
+package io.haste;
+
+/**
+ * Decides what happens to ticks fired while the subscriber has not requested any
+ */
+public enum TickOverflowPolicy {
+
+    /**
+     * Ticks without demand are lost
+     */
+    DROP,
+
+    /**
+     * Ticks without demand are coalesced, only the most recent one is delivered once demand arrives
+     */
+    KEEP_LATEST
+
+}
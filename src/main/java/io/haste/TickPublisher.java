@@ -0,0 +1,126 @@
+package io.haste;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes the time of every run of a fixed-rate task. Every subscriber gets its own task, so a tick never waits
+ * in an unbounded buffer: without demand it is dropped or replaces the previous undelivered one.
+ */
+final class TickPublisher implements Flow.Publisher<Instant> {
+
+    private final ScheduledExecutorServiceWithTimeSource executorService;
+    private final long periodInNanos;
+    private final TickOverflowPolicy overflowPolicy;
+
+    TickPublisher(ScheduledExecutorServiceWithTimeSource executorService, long periodInNanos, TickOverflowPolicy overflowPolicy) {
+        Objects.requireNonNull(executorService);
+        if (periodInNanos <= 0) throw new IllegalArgumentException();
+        Objects.requireNonNull(overflowPolicy);
+        this.executorService = executorService;
+        this.periodInNanos = periodInNanos;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Instant> subscriber) {
+        Objects.requireNonNull(subscriber);
+
+        var subscription = new TickSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.start();
+    }
+
+    private class TickSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super Instant> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicReference<Instant> pendingTick = new AtomicReference<>();
+        private final AtomicInteger drainRequests = new AtomicInteger();
+        private volatile ScheduledFuture<?> ticker;
+        private volatile boolean cancelled;
+
+        private TickSubscription(Flow.Subscriber<? super Instant> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        private void start() {
+            if (cancelled) {
+                return;
+            }
+            ticker = executorService.scheduleAtFixedRate(this::tick, periodInNanos, periodInNanos, TimeUnit.NANOSECONDS);
+            if (cancelled) {
+                ticker.cancel(false);
+            }
+        }
+
+        private void tick() {
+            pendingTick.set(executorService.instant());
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("non-positive request: " + n));
+                return;
+            }
+            demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            pendingTick.set(null);
+            ScheduledFuture<?> current = ticker;
+            if (current != null) {
+                current.cancel(false);
+            }
+        }
+
+        /**
+         * Delivers the pending tick if there is demand. Only one thread delivers at a time, calls made meanwhile
+         * make it loop once more, so signals stay serialized and recursive requests from onNext do not recurse.
+         */
+        private void drain() {
+            if (drainRequests.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                while (!cancelled && demand.get() > 0) {
+                    Instant tick = pendingTick.getAndSet(null);
+                    if (tick == null) {
+                        break;
+                    }
+                    if (demand.get() != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+                    deliver(tick);
+                }
+                if (overflowPolicy == TickOverflowPolicy.DROP && demand.get() == 0) {
+                    pendingTick.set(null);
+                }
+                missed = drainRequests.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void deliver(Instant tick) {
+            try {
+                subscriber.onNext(tick);
+            } catch (RuntimeException e) {
+                cancel();
+                throw e;
+            }
+        }
+    }
+
+}
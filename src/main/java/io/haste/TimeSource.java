@@ -1,5 +1,7 @@
 package io.haste;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 
 public interface TimeSource {
@@ -18,4 +20,42 @@ public interface TimeSource {
      * @return current time in milliseconds
      */
     long currentTimeMillis();
+
+    /**
+     * Provides the current instant from clock
+     *
+     * @return current instant
+     */
+    default Instant instant() {
+        return now().toInstant();
+    }
+
+    /**
+     * Provides the current time as nanoseconds from 1970-01-01T00:00:00Z
+     *
+     * @return current time in nanoseconds
+     */
+    default long epochNanos() {
+        return EpochNanos.of(instant());
+    }
+
+    /**
+     * Provides the current value of a monotonic time source, only the difference between two values is meaningful.
+     * See {@link System#nanoTime()}
+     *
+     * @return current value of the time source in nanoseconds
+     */
+    default long nanoTime() {
+        return epochNanos();
+    }
+
+    /**
+     * Provides a live {@link Clock} view, which reads the current time of this source on every call, e.g. the view of
+     * {@link MovableTimeSource} follows every move of the time
+     *
+     * @return clock backed by this time source
+     */
+    default Clock asClock() {
+        return new TimeSourceClock(this, now().getZone());
+    }
 }
@@ -0,0 +1,62 @@
+package io.haste;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Objects;
+
+/**
+ * Live {@link Clock} view of a {@link TimeSource}, every call reads the current time of the source
+ */
+final class TimeSourceClock extends Clock {
+
+    private final TimeSource timeSource;
+    private final ZoneId zone;
+
+    TimeSourceClock(TimeSource timeSource, ZoneId zone) {
+        this.timeSource = Objects.requireNonNull(timeSource);
+        this.zone = Objects.requireNonNull(zone);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        if (this.zone.equals(zone)) {
+            return this;
+        }
+        return new TimeSourceClock(timeSource, zone);
+    }
+
+    @Override
+    public long millis() {
+        return timeSource.currentTimeMillis();
+    }
+
+    @Override
+    public Instant instant() {
+        return timeSource.instant();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TimeSourceClock)) return false;
+        TimeSourceClock that = (TimeSourceClock) o;
+        return timeSource == that.timeSource && zone.equals(that.zone);
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(timeSource) ^ zone.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "TimeSourceClock[" + timeSource + "," + zone + "]";
+    }
+
+}
@@ -0,0 +1,249 @@
+package io.haste;
+
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical hashed timing wheel. Every level has 64 buckets, a bucket of level {@code n} spans {@code 64^n} ticks.
+ * Adding a task is O(1), tasks are cascaded to lower levels when the wheel cursor enters their bucket. Tasks of
+ * the current tick are kept in a small heap to preserve exact deadline order inside one tick.
+ */
+final class TimingWheelTaskQueue implements TaskQueue {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = (Long.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+    private static final int IN_CURRENT_TICK = -2;
+
+    private final long tickInNanos;
+    private final QueuedTask[] buckets = new QueuedTask[LEVELS * SLOTS];
+    private final long[] occupiedSlots = new long[LEVELS];
+    private final PriorityQueue<QueuedTask> currentTickTasks = new PriorityQueue<>(QueuedTask::compare);
+
+    // ticks are shifted by Long.MIN_VALUE so that unsigned comparison keeps the order of negative epoch times
+    private long currentTick = 0;
+    private int tasksOnWheel = 0;
+    // earliest task on the wheel found by peek, null when not known
+    private QueuedTask earliestOnWheel;
+
+    TimingWheelTaskQueue(long tickInNanos) {
+        if (tickInNanos <= 0) throw new IllegalArgumentException();
+        this.tickInNanos = tickInNanos;
+    }
+
+    @Override
+    public void add(QueuedTask task) {
+        long tick = tickOf(task.deadline);
+        if (Long.compareUnsigned(tick, currentTick) <= 0) {
+            task.queueIndex = IN_CURRENT_TICK;
+            currentTickTasks.add(task);
+            return;
+        }
+        int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(tick ^ currentTick)) / SLOT_BITS;
+        int slot = slotOf(tick, level);
+        int bucket = level * SLOTS + slot;
+        QueuedTask head = buckets[bucket];
+        if (head != null) {
+            head.previous = task;
+        }
+        task.next = head;
+        task.queueIndex = bucket;
+        buckets[bucket] = task;
+        occupiedSlots[level] |= 1L << slot;
+        tasksOnWheel++;
+        if (earliestOnWheel != null && QueuedTask.compare(task, earliestOnWheel) < 0) {
+            earliestOnWheel = task;
+        }
+    }
+
+    @Override
+    public boolean remove(QueuedTask task) {
+        int bucket = task.queueIndex;
+        if (bucket == IN_CURRENT_TICK) {
+            task.queueIndex = -1;
+            return currentTickTasks.remove(task);
+        }
+        if (bucket < 0) {
+            return false;
+        }
+        QueuedTask previous = task.previous;
+        QueuedTask next = task.next;
+        if (previous == null) {
+            buckets[bucket] = next;
+            if (next == null) {
+                occupiedSlots[bucket / SLOTS] &= ~(1L << (bucket % SLOTS));
+            }
+        } else {
+            previous.next = next;
+        }
+        if (next != null) {
+            next.previous = previous;
+        }
+        unlink(task);
+        tasksOnWheel--;
+        if (task == earliestOnWheel) {
+            earliestOnWheel = null;
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return tasksOnWheel + currentTickTasks.size();
+    }
+
+    @Override
+    public void forEach(Consumer<? super QueuedTask> action) {
+        currentTickTasks.forEach(action);
+        for (QueuedTask head : buckets) {
+            for (QueuedTask task = head; task != null; task = task.next) {
+                action.accept(task);
+            }
+        }
+    }
+
+    @Override
+    public TaskQueue emptyCopy() {
+        return new TimingWheelTaskQueue(tickInNanos);
+    }
+
+    /**
+     * Scans the earliest occupied bucket without moving the cursor, so tasks added later still go to the wheel.
+     * The found task is remembered until it is removed or the cursor moves.
+     */
+    @Override
+    public QueuedTask peek() {
+        if (!currentTickTasks.isEmpty()) {
+            return currentTickTasks.peek();
+        }
+        if (tasksOnWheel == 0) {
+            return null;
+        }
+        if (earliestOnWheel == null) {
+            earliestOnWheel = findEarliestOnWheel();
+        }
+        return earliestOnWheel;
+    }
+
+    @Override
+    public QueuedTask pollDue(long time) {
+        long limitTick = tickOf(time);
+        while (currentTickTasks.isEmpty()) {
+            if (!moveToNextOccupiedTick(limitTick)) {
+                return null;
+            }
+        }
+        if (currentTickTasks.peek().deadline > time) {
+            return null;
+        }
+        QueuedTask task = currentTickTasks.poll();
+        task.queueIndex = -1;
+        return task;
+    }
+
+    /**
+     * Moves the cursor to the earliest occupied bucket which starts not later than given tick, cascading it to lower
+     * levels. If there is no such bucket the cursor is moved to given tick.
+     *
+     * @return true if the cursor has been moved to an occupied bucket
+     */
+    private boolean moveToNextOccupiedTick(long limitTick) {
+        if (tasksOnWheel == 0) {
+            moveTo(limitTick);
+            return false;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            long candidates = slotsAhead(level);
+            if (candidates == 0) {
+                continue;
+            }
+            int slot = Long.numberOfTrailingZeros(candidates);
+            int shift = level * SLOT_BITS;
+            long blockStart = (currentTick & ~(blockMask(shift + SLOT_BITS))) | ((long) slot << shift);
+            if (Long.compareUnsigned(blockStart, limitTick) > 0) {
+                moveTo(limitTick);
+                return false;
+            }
+            currentTick = blockStart;
+            cascade(level, slot);
+            return true;
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * Tasks of a lower level are due before tasks of any higher level, so the earliest task is in the first occupied
+     * bucket ahead of the cursor
+     */
+    private QueuedTask findEarliestOnWheel() {
+        for (int level = 0; level < LEVELS; level++) {
+            long candidates = slotsAhead(level);
+            if (candidates == 0) {
+                continue;
+            }
+            QueuedTask earliest = buckets[level * SLOTS + Long.numberOfTrailingZeros(candidates)];
+            for (QueuedTask task = earliest.next; task != null; task = task.next) {
+                if (QueuedTask.compare(task, earliest) < 0) {
+                    earliest = task;
+                }
+            }
+            return earliest;
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * @return occupied slots of given level which have not been passed by the cursor
+     */
+    private long slotsAhead(int level) {
+        int currentSlot = slotOf(currentTick, level);
+        return occupiedSlots[level] & (level == 0 ? -1L << currentSlot : -2L << currentSlot);
+    }
+
+    /**
+     * Moves the cursor to given tick assuming there is no task on the wheel scheduled before or at that tick
+     */
+    private void moveTo(long tick) {
+        if (Long.compareUnsigned(tick, currentTick) <= 0) {
+            return;
+        }
+        int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(tick ^ currentTick)) / SLOT_BITS;
+        currentTick = tick;
+        cascade(level, slotOf(tick, level));
+    }
+
+    private void cascade(int level, int slot) {
+        earliestOnWheel = null;
+        int bucket = level * SLOTS + slot;
+        QueuedTask task = buckets[bucket];
+        buckets[bucket] = null;
+        occupiedSlots[level] &= ~(1L << slot);
+        while (task != null) {
+            QueuedTask next = task.next;
+            unlink(task);
+            tasksOnWheel--;
+            add(task);
+            task = next;
+        }
+    }
+
+    private static void unlink(QueuedTask task) {
+        task.next = null;
+        task.previous = null;
+        task.queueIndex = -1;
+    }
+
+    private long tickOf(long epochNanos) {
+        return Math.floorDiv(epochNanos, tickInNanos) ^ Long.MIN_VALUE;
+    }
+
+    private static int slotOf(long tick, int level) {
+        return (int) (tick >>> (level * SLOT_BITS)) & SLOT_MASK;
+    }
+
+    private static long blockMask(int bits) {
+        return bits >= Long.SIZE ? -1L : (1L << bits) - 1;
+    }
+
+}
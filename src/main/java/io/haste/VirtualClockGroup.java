@@ -0,0 +1,51 @@
+package io.haste;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One virtual time shared by many executors, e.g. one per simulated node of a cluster. Moving the time of the group
+ * runs tasks of all members in global deadline order, members with tasks due at the same instant run them
+ * in parallel. Members must not move their time by themselves.
+ */
+public interface VirtualClockGroup extends MovableTimeSource {
+
+    /**
+     * Creates executor joining the group at its current time. Tasks can be scheduled on it from any thread,
+     * including tasks of other members.
+     *
+     * @return new member executor
+     */
+    ScheduledExecutorServiceWithMovableTime newMember();
+
+    /**
+     * @return members in creation order
+     */
+    List<ScheduledExecutorServiceWithMovableTime> members();
+
+    /**
+     * Move time of all members by given amount of time, running their tasks in global deadline order
+     *
+     * @param delayTime amount of time to move
+     * @param timeUnit  time unit of delay parameter
+     */
+    @Override
+    void advanceTimeBy(long delayTime, TimeUnit timeUnit);
+
+    /**
+     * Move time of all members by given duration, running their tasks in global deadline order
+     *
+     * @param duration amount of time to move
+     */
+    @Override
+    void advanceTimeBy(Duration duration);
+
+    /**
+     * @return the earliest deadline among all members or empty if no member has a scheduled task
+     */
+    Optional<ZonedDateTime> nextDeadline();
+
+}
@@ -0,0 +1,111 @@
+package io.haste;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncSchedulingTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+
+    @Test
+    void shouldCompleteFutureWithCallableResultWhenTaskIsRun() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+
+        CompletableFuture<Integer> future = executorService.scheduleAsync(() -> 42, 1, TimeUnit.SECONDS);
+
+        assertFalse(future.isDone());
+        executorService.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertEquals(Integer.valueOf(42), future.getNow(null));
+    }
+
+    @Test
+    void shouldCompleteRunnableFutureAfterRun() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var counter = new AtomicInteger();
+
+        CompletableFuture<Void> future = executorService.scheduleAsync((Runnable) counter::incrementAndGet, 1, TimeUnit.SECONDS);
+        executorService.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertTrue(future.isDone());
+        assertFalse(future.isCompletedExceptionally());
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    void shouldRunDependentStagesAtVirtualTimeOfTask() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var completionTime = new AtomicLong();
+
+        executorService.scheduleAsync(() -> 1, 5, TimeUnit.SECONDS)
+                .thenAccept(value -> completionTime.set(executorService.currentTimeMillis()));
+        executorService.advanceTimeBy(10, TimeUnit.SECONDS);
+
+        assertEquals(5000, completionTime.get());
+    }
+
+    @Test
+    void shouldCompleteExceptionallyInsteadOfThrowing() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        Runnable failing = () -> {
+            throw new IllegalStateException();
+        };
+        Callable<Integer> failingCallable = () -> {
+            throw new Exception("failed");
+        };
+
+        CompletableFuture<Void> runnableFuture = executorService.scheduleAsync(failing, 1, TimeUnit.SECONDS);
+        CompletableFuture<Integer> callableFuture = executorService.scheduleAsync(failingCallable, 1, TimeUnit.SECONDS);
+        executorService.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        var runnableFailure = assertThrows(CompletionException.class, runnableFuture::join);
+        assertTrue(runnableFailure.getCause() instanceof IllegalStateException);
+        var callableFailure = assertThrows(CompletionException.class, callableFuture::join);
+        assertEquals("failed", callableFailure.getCause().getMessage());
+    }
+
+    @Test
+    void shouldCompleteExceptionallyWithError() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        Runnable failing = () -> {
+            throw new AssertionError();
+        };
+
+        CompletableFuture<Void> future = executorService.scheduleAsync(failing, 1, TimeUnit.SECONDS);
+        executorService.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        var failure = assertThrows(CompletionException.class, future::join);
+        assertTrue(failure.getCause() instanceof AssertionError);
+    }
+
+    @Test
+    void shouldCancelTaskWhenFutureIsCancelled() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var counter = new AtomicInteger();
+
+        CompletableFuture<Void> future = executorService.scheduleAsync((Runnable) counter::incrementAndGet, 1, TimeUnit.SECONDS);
+        future.cancel(false);
+        executorService.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertEquals(0, counter.get());
+        assertEquals(0, executorService.pendingTaskCount());
+    }
+
+    @Test
+    void shouldRejectNegativeDelay() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+
+        assertThrows(IllegalArgumentException.class, () -> executorService.scheduleAsync(() -> 1, -1, TimeUnit.SECONDS));
+    }
+
+}
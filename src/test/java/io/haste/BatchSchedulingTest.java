@@ -0,0 +1,105 @@
+package io.haste;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSchedulingTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneId.systemDefault());
+
+    @Test
+    void shouldReturnFuturesInInputOrder() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        List<Callable<Integer>> callables = List.of(() -> 0, () -> 1, () -> 2);
+
+        var futures = executorService.scheduleAllCallables(callables, new long[]{3, 1, 2}, TimeUnit.SECONDS);
+
+        assertEquals(3, futures.get(0).getDelay(TimeUnit.SECONDS));
+        assertEquals(1, futures.get(1).getDelay(TimeUnit.SECONDS));
+        assertEquals(2, futures.get(2).getDelay(TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldRunBatchInDeadlineOrder() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var order = new ArrayList<Integer>();
+        var runnables = new ArrayList<Runnable>();
+        var delays = new long[1000];
+        for (int i = 0; i < 1000; i++) {
+            int task = i;
+            runnables.add(() -> order.add(task));
+            delays[i] = (1000 - i) * 2;
+        }
+        executorService.schedule(() -> order.add(-1), 1001, TimeUnit.MILLISECONDS);
+
+        var futures = executorService.scheduleAll(runnables, delays, TimeUnit.MILLISECONDS);
+        executorService.advanceTimeBy(2, TimeUnit.SECONDS);
+
+        assertEquals(1001, order.size());
+        assertEquals(999, order.get(0).intValue());
+        assertEquals(-1, order.get(500).intValue());
+        assertEquals(0, order.get(1000).intValue());
+        assertTrue(futures.stream().allMatch(future -> future.isDone()));
+    }
+
+    @Test
+    void shouldScheduleBatchOnConcurrentInstance() {
+        var executorService = Haste.ScheduledExecutionService.concurrentWithFixedClock(CLOCK);
+        var runnables = new ArrayList<Runnable>();
+        for (int i = 0; i < 100; i++) {
+            runnables.add(() -> {
+            });
+        }
+
+        var futures = executorService.scheduleAll(runnables, new long[100], TimeUnit.SECONDS);
+        executorService.advanceTimeBy(0, TimeUnit.SECONDS);
+
+        assertTrue(futures.stream().allMatch(future -> future.isDone()));
+    }
+
+    @Test
+    void shouldNotScheduleAnythingWhenOneDelayIsNegative() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        List<Runnable> runnables = List.of(() -> {
+        }, () -> {
+        });
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> executorService.scheduleAll(runnables, new long[]{1, -1}, TimeUnit.SECONDS)
+        );
+        assertEquals(0, executorService.pendingTaskCount());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenDelaysDoNotMatchTasks() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        List<Runnable> runnables = List.of(() -> {
+        });
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> executorService.scheduleAll(runnables, new long[]{1, 2}, TimeUnit.SECONDS)
+        );
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPassingNullTimeUnit() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+
+        assertThrows(
+                NullPointerException.class,
+                () -> executorService.scheduleAll(List.of(), new long[0], null)
+        );
+    }
+
+}
@@ -86,6 +86,15 @@ class BlockingScheduledExecutionServiceInputTest {
         );
     }
 
+    @Test
+    void shouldThrowExceptionWhenPassingZeroPeriodToScheduleWithFixRate() {
+        var service = new BlockingScheduledExecutionService(Clock.systemDefaultZone());
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> service.scheduleAtFixedRate(EMPTY_RUNNABLE, 1, 0, TimeUnit.MINUTES)
+        );
+    }
+
     @Test
     void shouldThrowExceptionWhenPassingNullTimeUnitsToScheduleWithFixRate() {
         var service = new BlockingScheduledExecutionService(Clock.systemDefaultZone());
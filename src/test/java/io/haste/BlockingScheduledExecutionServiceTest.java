@@ -7,6 +7,7 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -62,7 +63,7 @@ class BlockingScheduledExecutionServiceTest {
         schedule1.cancel(true);
         executorService.advanceTimeBy(4, TimeUnit.HOURS);
 
-        assertNull(schedule1.get());
+        assertThrows(CancellationException.class, schedule1::get);
     }
 
     @Test
@@ -158,6 +159,85 @@ class BlockingScheduledExecutionServiceTest {
         executorService.advanceTimeBy(15, TimeUnit.DAYS);
     }
 
+    @Test
+    void shouldReportRemainingDelayOfScheduledJob() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(Clock.fixed(Instant.EPOCH, ZoneId.systemDefault()));
+
+        ScheduledFuture schedule = executorService.schedule(EMPTY_RUNNABLE, 3, TimeUnit.HOURS);
+        executorService.advanceTimeBy(1, TimeUnit.HOURS);
+
+        assertEquals(120, schedule.getDelay(TimeUnit.MINUTES));
+    }
+
+    @Test
+    void shouldNotOverflowWhenSchedulingWithHugeDelay() {
+        ObjectWithInteger objectWithInteger = new ObjectWithInteger();
+        AddRunnable runnable = new AddRunnable(objectWithInteger);
+        var executorService = Haste.ScheduledExecutionService.withFixedClockFromNow();
+
+        executorService.schedule(runnable, Long.MAX_VALUE, TimeUnit.DAYS);
+        executorService.advanceTimeBy(365, TimeUnit.DAYS);
+
+        assertEquals(0, objectWithInteger.getA());
+    }
+
+    @Test
+    void shouldRemoveCanceledJobsFromQueue() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClockFromNow();
+
+        for (int i = 0; i < 100; i++) {
+            executorService.schedule(EMPTY_RUNNABLE, 1, TimeUnit.HOURS).cancel(false);
+        }
+        executorService.schedule(EMPTY_RUNNABLE, 1, TimeUnit.HOURS);
+
+        assertEquals(1, executorService.pendingTaskCount());
+        assertEquals(0, executorService.cancelledTaskCount());
+    }
+
+    @Test
+    void shouldStopPeriodicTaskWhenOriginalFutureIsCanceled() {
+        ObjectWithInteger objectWithInteger = new ObjectWithInteger();
+        AddRunnable runnable = new AddRunnable(objectWithInteger);
+        var executorService = Haste.ScheduledExecutionService.withFixedClockFromNow();
+
+        ScheduledFuture schedule = executorService.scheduleAtFixedRate(runnable, 1, 1, TimeUnit.SECONDS);
+        executorService.advanceTimeBy(3, TimeUnit.SECONDS);
+        schedule.cancel(false);
+        executorService.advanceTimeBy(3, TimeUnit.SECONDS);
+
+        assertEquals(3, objectWithInteger.getA());
+        assertTrue(schedule.isCancelled());
+        assertEquals(0, executorService.pendingTaskCount());
+    }
+
+    @Test
+    void shouldKeepSinglePendingFutureForPeriodicTask() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClockFromNow();
+
+        ScheduledFuture schedule = executorService.scheduleWithFixedDelay(EMPTY_RUNNABLE, 1, 1, TimeUnit.SECONDS);
+        executorService.advanceTimeBy(10, TimeUnit.SECONDS);
+
+        assertEquals(1, executorService.pendingTaskCount());
+        assertEquals(1, schedule.getDelay(TimeUnit.SECONDS));
+        assertFalse(schedule.isDone());
+    }
+
+    @Test
+    void shouldStopPeriodicTaskAfterException() {
+        ObjectWithInteger objectWithInteger = new ObjectWithInteger();
+        var executorService = Haste.ScheduledExecutionService.withFixedClockFromNow();
+
+        executorService.scheduleAtFixedRate(() -> {
+            objectWithInteger.add();
+            throw new IllegalStateException();
+        }, 1, 1, TimeUnit.SECONDS);
+
+        assertThrows(IllegalStateException.class, () -> executorService.advanceTimeBy(3, TimeUnit.SECONDS));
+        executorService.advanceTimeBy(3, TimeUnit.SECONDS);
+
+        assertEquals(1, objectWithInteger.getA());
+    }
+
     static class ObjectWithInteger {
         private int a = 0;
 
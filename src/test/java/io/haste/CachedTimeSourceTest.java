@@ -0,0 +1,64 @@
+package io.haste;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedTimeSourceTest {
+
+    @Test
+    void shouldReuseTimeWithinTick() {
+        var timeSource = Haste.TimeSource.cachedSystemTimeSource(Duration.ofHours(1));
+
+        var first = timeSource.now();
+        var second = timeSource.now();
+
+        assertSame(first, second);
+        assertEquals(first.toInstant().toEpochMilli(), timeSource.currentTimeMillis());
+    }
+
+    @Test
+    void shouldRefreshTimeEveryTick() throws InterruptedException {
+        var timeSource = Haste.TimeSource.cachedSystemTimeSource(Duration.ofMillis(1));
+        long before = timeSource.currentTimeMillis();
+
+        Thread.sleep(50);
+
+        assertTrue(timeSource.currentTimeMillis() > before);
+        assertTrue(Math.abs(System.currentTimeMillis() - timeSource.currentTimeMillis()) < 1000);
+    }
+
+    @Test
+    void shouldRefreshAllInstancesOnOneThread() throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            Haste.TimeSource.cachedSystemTimeSource(Duration.ofMillis(1));
+        }
+
+        Thread.sleep(20);
+
+        long tickerThreads = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("haste-cached-clock"))
+                .count();
+        assertEquals(1, tickerThreads);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPassingNonPositiveResolution() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new CachedTimeSource(Clock.systemDefaultZone(), 0)
+        );
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPassingNullClock() {
+        assertThrows(
+                NullPointerException.class,
+                () -> new CachedTimeSource(null, 1)
+        );
+    }
+
+}
@@ -0,0 +1,103 @@
+package io.haste;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentScheduledExecutionServiceTest {
+
+    private static final int THREADS = 16;
+    private static final int TASKS_PER_THREAD = 10_000;
+
+    @Test
+    void shouldRunTasksScheduledFromManyThreads() throws Exception {
+        var executorService = Haste.ScheduledExecutionService.concurrentWithFixedClock(Clock.fixed(Instant.EPOCH, ZoneId.systemDefault()));
+        var counter = new AtomicInteger();
+        var schedulingThreads = Executors.newFixedThreadPool(THREADS);
+        var start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            results.add(schedulingThreads.submit(() -> {
+                start.await();
+                for (int j = 0; j < TASKS_PER_THREAD; j++) {
+                    executorService.schedule(counter::incrementAndGet, 1 + j % 100, TimeUnit.SECONDS);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        while (!allDone(results)) {
+            executorService.advanceTimeBy(0, TimeUnit.SECONDS);
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        schedulingThreads.shutdown();
+
+        executorService.advanceTimeBy(100, TimeUnit.SECONDS);
+
+        assertEquals(THREADS * TASKS_PER_THREAD, counter.get());
+    }
+
+    @Test
+    void shouldPublishCallableResultToOtherThread() throws Exception {
+        var executorService = Haste.ScheduledExecutionService.concurrentWithFixedClockFromNow();
+        ScheduledFuture<Integer> schedule = executorService.schedule(() -> 1, 1, TimeUnit.SECONDS);
+
+        var driver = new Thread(() -> executorService.advanceTimeBy(1, TimeUnit.SECONDS));
+        driver.start();
+        driver.join();
+
+        assertTrue(schedule.isDone());
+        assertEquals(Integer.valueOf(1), schedule.get());
+    }
+
+    @Test
+    void shouldNotRunTaskCanceledFromOtherThread() throws Exception {
+        var executorService = Haste.ScheduledExecutionService.concurrentWithFixedClockFromNow();
+        var counter = new AtomicInteger();
+        ScheduledFuture<?> schedule = executorService.schedule(counter::incrementAndGet, 1, TimeUnit.SECONDS);
+
+        var canceling = new Thread(() -> schedule.cancel(false));
+        canceling.start();
+        canceling.join();
+        executorService.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertTrue(schedule.isCancelled());
+        assertFalse(schedule.cancel(false));
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    void shouldCountCanceledTasksUntilTimeIsMoved() {
+        var executorService = Haste.ScheduledExecutionService.concurrentWithFixedClockFromNow();
+        ScheduledFuture<?> schedule = executorService.schedule(() -> {
+        }, 1, TimeUnit.HOURS);
+        executorService.schedule(() -> {
+        }, 1, TimeUnit.HOURS);
+
+        schedule.cancel(false);
+
+        assertEquals(1, executorService.pendingTaskCount());
+        assertEquals(1, executorService.cancelledTaskCount());
+
+        executorService.advanceTimeBy(1, TimeUnit.MINUTES);
+
+        assertEquals(1, executorService.pendingTaskCount());
+        assertEquals(0, executorService.cancelledTaskCount());
+    }
+
+    private static boolean allDone(List<Future<?>> futures) {
+        return futures.stream().allMatch(Future::isDone);
+    }
+
+}
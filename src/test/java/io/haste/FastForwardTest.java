@@ -0,0 +1,112 @@
+package io.haste;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FastForwardTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+
+    @Test
+    void shouldReturnEmptyNextDeadlineWhenNothingIsScheduled() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+
+        assertEquals(Optional.empty(), executorService.nextDeadline());
+        assertFalse(executorService.advanceToNextTask());
+        assertEquals(0, executorService.currentTimeMillis());
+    }
+
+    @Test
+    void shouldPeekNextDeadlineWithoutRunningTask() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var counter = new AtomicInteger();
+        executorService.schedule(counter::incrementAndGet, 3, TimeUnit.DAYS);
+        executorService.schedule(counter::incrementAndGet, 2, TimeUnit.DAYS);
+
+        var nextDeadline = executorService.nextDeadline();
+
+        assertEquals(Optional.of(ZonedDateTime.now(CLOCK).plusDays(2)), nextDeadline);
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    void shouldAdvanceToNextTask() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var counter = new AtomicInteger();
+        executorService.schedule(counter::incrementAndGet, 90, TimeUnit.DAYS);
+        executorService.schedule(counter::incrementAndGet, 90, TimeUnit.DAYS);
+        executorService.schedule(counter::incrementAndGet, 180, TimeUnit.DAYS);
+
+        assertTrue(executorService.advanceToNextTask());
+
+        assertEquals(2, counter.get());
+        assertEquals(ZonedDateTime.now(CLOCK).plusDays(90), executorService.now());
+    }
+
+    @Test
+    void shouldRunUntilIdle() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var counter = new AtomicInteger();
+        executorService.schedule(() -> executorService.schedule(counter::incrementAndGet, 30, TimeUnit.DAYS), 30, TimeUnit.DAYS);
+        executorService.schedule(counter::incrementAndGet, 1, TimeUnit.DAYS);
+
+        int runTasks = executorService.runUntilIdle(Duration.ofDays(365));
+
+        assertEquals(3, runTasks);
+        assertEquals(2, counter.get());
+        assertEquals(ZonedDateTime.now(CLOCK).plusDays(60), executorService.now());
+    }
+
+    @Test
+    void shouldStopRunningAtTimeLimit() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var counter = new AtomicInteger();
+        executorService.scheduleAtFixedRate(counter::incrementAndGet, 1, 1, TimeUnit.DAYS);
+
+        int runTasks = executorService.runUntilIdle(Duration.ofDays(10));
+
+        assertEquals(10, runTasks);
+        assertEquals(10, counter.get());
+    }
+
+    @Test
+    void shouldStopRunningAtTaskLimit() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var counter = new AtomicInteger();
+        executorService.scheduleAtFixedRate(counter::incrementAndGet, 1, 1, TimeUnit.DAYS);
+
+        int runTasks = executorService.runUntilIdle(Duration.ofDays(1000), 5);
+
+        assertEquals(5, runTasks);
+        assertEquals(ZonedDateTime.now(CLOCK).plusDays(5), executorService.now());
+    }
+
+    @Test
+    void shouldAdvanceToNextTaskOnTimingWheel() {
+        var executorService = Haste.ScheduledExecutionService.withTimingWheel(CLOCK, Duration.ofMillis(1));
+        var counter = new AtomicInteger();
+        executorService.schedule(counter::incrementAndGet, 7, TimeUnit.DAYS);
+
+        assertTrue(executorService.advanceToNextTask());
+        executorService.schedule(counter::incrementAndGet, 1, TimeUnit.SECONDS);
+        executorService.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPassingNegativeTimeLimit() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> executorService.runUntilIdle(Duration.ofDays(-1))
+        );
+    }
+
+}
@@ -0,0 +1,152 @@
+package io.haste;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FutureGetTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+
+    @Test
+    void shouldBlockUntilTaskIsRun() throws Exception {
+        var executorService = Haste.ScheduledExecutionService.concurrentWithFixedClock(CLOCK);
+        var schedule = executorService.schedule(() -> 1, 1, TimeUnit.HOURS);
+
+        var result = CompletableFuture.supplyAsync(() -> {
+            try {
+                return schedule.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(20);
+        assertFalse(result.isDone());
+        executorService.advanceTimeBy(1, TimeUnit.HOURS);
+
+        assertEquals(Integer.valueOf(1), result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldReturnNullFromRunRunnable() throws Exception {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var schedule = executorService.schedule(() -> {
+        }, 1, TimeUnit.HOURS);
+
+        executorService.advanceTimeBy(1, TimeUnit.HOURS);
+
+        assertNull(schedule.get());
+    }
+
+    @Test
+    void shouldThrowFailureOfCallable() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var failure = new IllegalStateException();
+        var schedule = executorService.schedule(() -> {
+            throw failure;
+        }, 1, TimeUnit.HOURS);
+
+        executorService.advanceTimeBy(1, TimeUnit.HOURS);
+
+        var exception = assertThrows(ExecutionException.class, schedule::get);
+        assertSame(failure, exception.getCause());
+    }
+
+    @Test
+    void shouldCompleteCallableThrowingError() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var failure = new AssertionError();
+        var schedule = executorService.schedule(() -> {
+            throw failure;
+        }, 1, TimeUnit.HOURS);
+
+        assertThrows(AssertionError.class, () -> executorService.advanceTimeBy(1, TimeUnit.HOURS));
+
+        assertTrue(schedule.isDone());
+        var exception = assertThrows(ExecutionException.class, () -> schedule.get(1, TimeUnit.SECONDS));
+        assertSame(failure, exception.getCause());
+    }
+
+    @Test
+    void shouldThrowFailureOfRunnable() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var failure = new IllegalStateException();
+        var schedule = executorService.schedule((Runnable) () -> {
+            throw failure;
+        }, 1, TimeUnit.HOURS);
+
+        assertThrows(IllegalStateException.class, () -> executorService.advanceTimeBy(1, TimeUnit.HOURS));
+
+        assertTrue(schedule.isDone());
+        var exception = assertThrows(ExecutionException.class, () -> schedule.get(1, TimeUnit.SECONDS));
+        assertSame(failure, exception.getCause());
+    }
+
+    @Test
+    void shouldBeDoneAfterCancel() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var schedule = executorService.schedule(() -> 1, 1, TimeUnit.HOURS);
+
+        assertTrue(schedule.cancel(false));
+
+        assertTrue(schedule.isCancelled());
+        assertTrue(schedule.isDone());
+        assertThrows(CancellationException.class, schedule::get);
+    }
+
+    @Test
+    void shouldWakeWaiterOnCancel() throws Exception {
+        var executorService = Haste.ScheduledExecutionService.concurrentWithFixedClock(CLOCK);
+        var schedule = executorService.scheduleAtFixedRate(() -> {
+        }, 1, 1, TimeUnit.HOURS);
+
+        var waiter = CompletableFuture.runAsync(() -> {
+            try {
+                schedule.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        executorService.advanceTimeBy(5, TimeUnit.HOURS);
+        Thread.sleep(20);
+        schedule.cancel(false);
+
+        var exception = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof CancellationException);
+    }
+
+    @Test
+    void shouldMeasureTimeoutInRealTimeWhenTimeIsMovedExplicitly() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var schedule = executorService.schedule(() -> 1, 1, TimeUnit.SECONDS);
+
+        long start = System.nanoTime();
+        assertThrows(TimeoutException.class, () -> schedule.get(20, TimeUnit.MILLISECONDS));
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertFalse(schedule.isDone());
+    }
+
+    @Test
+    void shouldMeasureTimeoutInVirtualTimeWhenTimeFlows() throws Exception {
+        var executorService = Haste.ScheduledExecutionService.scaledRealTime(CLOCK, TimeUnit.HOURS.toNanos(1) / TimeUnit.MILLISECONDS.toNanos(1));
+        try {
+            var schedule = executorService.schedule(() -> 1, 100, TimeUnit.HOURS);
+
+            assertThrows(TimeoutException.class, () -> schedule.get(1, TimeUnit.HOURS));
+            assertEquals(Integer.valueOf(1), schedule.get(100, TimeUnit.DAYS));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+package io.haste;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import static io.haste.TaskQueueFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeapTaskQueueTest {
+
+    @Test
+    void shouldPollTasksInDeadlineOrderAfterRemovals() {
+        var queue = new HeapTaskQueue();
+        var random = new Random(7);
+        var tasks = new ArrayList<TestTask>();
+        for (int i = 0; i < 10_000; i++) {
+            var task = new TestTask(random.nextInt(1_000_000));
+            tasks.add(task);
+            queue.add(task);
+        }
+        Collections.shuffle(tasks, random);
+        var removed = tasks.subList(0, 5_000);
+        for (TestTask task : removed) {
+            assertTrue(queue.remove(task));
+        }
+        var expected = new ArrayList<Long>();
+        tasks.subList(5_000, tasks.size()).forEach(task -> expected.add(task.deadline));
+        expected.sort(Long::compare);
+
+        assertEquals(5_000, queue.size());
+        assertEquals(expected, pollDeadlines(queue, Long.MAX_VALUE));
+    }
+
+    @Test
+    void shouldKeepHeapOrderAfterAddingAll() {
+        var queue = new HeapTaskQueue();
+        var random = new Random(11);
+        var expected = new ArrayList<Long>();
+        for (int i = 0; i < 100; i++) {
+            var task = new TestTask(random.nextInt(1_000_000));
+            expected.add(task.deadline);
+            queue.add(task);
+        }
+        var batch = new ArrayList<TestTask>();
+        for (int i = 0; i < 10_000; i++) {
+            var task = new TestTask(random.nextInt(1_000_000));
+            expected.add(task.deadline);
+            batch.add(task);
+        }
+        queue.addAll(batch);
+        assertTrue(queue.remove(batch.get(500)));
+        expected.remove(batch.get(500).deadline);
+        expected.sort(Long::compare);
+
+        assertEquals(expected, pollDeadlines(queue, Long.MAX_VALUE));
+    }
+
+    @Test
+    void shouldNotRemoveTaskWhichIsNotQueued() {
+        var queue = new HeapTaskQueue();
+        var task = new TestTask(1);
+        queue.add(task);
+        queue.pollDue(1);
+
+        assertFalse(queue.remove(task));
+        assertFalse(queue.remove(new TestTask(2)));
+    }
+
+}
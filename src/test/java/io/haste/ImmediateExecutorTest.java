@@ -0,0 +1,97 @@
+package io.haste;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImmediateExecutorTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+    private static final int THREADS = 4;
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void shouldRunInvokeAllInParallel() throws Exception {
+        var executorService = Haste.ScheduledExecutionService.withImmediateExecutor(CLOCK, pool);
+        var barrier = new CyclicBarrier(THREADS);
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int index = i;
+            tasks.add(() -> {
+                barrier.await(5, TimeUnit.SECONDS);
+                return index;
+            });
+        }
+
+        List<Future<Integer>> results = executorService.invokeAll(tasks);
+
+        for (int i = 0; i < THREADS; i++) {
+            assertEquals(Integer.valueOf(i), results.get(i).get());
+        }
+    }
+
+    @Test
+    void shouldReturnResultOfInvokeAny() throws Exception {
+        var executorService = Haste.ScheduledExecutionService.withImmediateExecutor(CLOCK, pool);
+
+        Integer result = executorService.invokeAny(List.of(() -> 1, () -> 1));
+
+        assertEquals(Integer.valueOf(1), result);
+    }
+
+    @Test
+    void shouldHoldDelayedTasksForVirtualTime() throws Exception {
+        var executorService = Haste.ScheduledExecutionService.withImmediateExecutor(CLOCK, pool);
+        var counter = new AtomicInteger();
+
+        executorService.submit(() -> executorService.schedule(counter::incrementAndGet, 1, TimeUnit.HOURS)).get();
+        executorService.advanceTimeBy(59, TimeUnit.MINUTES);
+        assertEquals(0, counter.get());
+        executorService.advanceTimeBy(1, TimeUnit.MINUTES);
+
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    void shouldAwaitImmediateTasksOnTermination() throws Exception {
+        var executorService = Haste.ScheduledExecutionService.withImmediateExecutor(CLOCK, pool);
+        var release = new CountDownLatch(1);
+        executorService.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        executorService.shutdown();
+        assertFalse(executorService.isTerminated());
+        assertFalse(executorService.awaitTermination(10, TimeUnit.MILLISECONDS));
+        release.countDown();
+
+        assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(executorService.isTerminated());
+    }
+
+}
@@ -3,6 +3,9 @@ package io.haste;
 import org.junit.jupiter.api.Test;
 
 import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -39,6 +42,18 @@ class MovableTimeSourceTest {
         assertEquals(expected, now);
     }
 
+    @Test
+    void shouldStopAtEndOfSupportedRange() {
+        for (Instant instant : List.of(Instant.parse("1700-01-01T00:00:00Z"), Instant.parse("2200-01-01T00:00:00Z"))) {
+            MovableTimeSource timeSource = Haste.TimeSource.withFixedClock(Clock.fixed(instant, ZoneOffset.UTC));
+
+            timeSource.advanceTimeBy(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            timeSource.advanceTimeBy(ChronoUnit.FOREVER.getDuration());
+
+            assertEquals(Long.MAX_VALUE, timeSource.epochNanos());
+        }
+    }
+
     @Test
     void shouldNotThrowSOWhenAdvancingTimeManyTimes() {
         Instant instant = Instant.ofEpochMilli(0);
@@ -66,4 +81,60 @@ class MovableTimeSourceTest {
         assertEquals("Europe/Berlin", actual);
     }
 
+    @Test
+    void shouldProvideInstantAndNanosWithOffset() {
+        Instant instant = Instant.ofEpochSecond(10, 5);
+        Clock clock = Clock.fixed(instant, ZoneId.systemDefault());
+        MovableTimeSource timeSource = Haste.TimeSource.withFixedClock(clock);
+        long nanoTimeBefore = timeSource.nanoTime();
+
+        timeSource.advanceTimeBy(3, TimeUnit.NANOSECONDS);
+
+        assertEquals(Instant.ofEpochSecond(10, 8), timeSource.instant());
+        assertEquals(10_000_000_008L, timeSource.epochNanos());
+        assertEquals(3, timeSource.nanoTime() - nanoTimeBefore);
+    }
+
+    @Test
+    void shouldDeriveInstantAndNanosFromNowByDefault() {
+        ZonedDateTime now = ZonedDateTime.ofInstant(Instant.ofEpochSecond(1, 2), ZoneId.systemDefault());
+        TimeSource timeSource = new TimeSource() {
+            @Override
+            public ZonedDateTime now() {
+                return now;
+            }
+
+            @Override
+            public long currentTimeMillis() {
+                return 1000;
+            }
+        };
+
+        assertEquals(now.toInstant(), timeSource.instant());
+        assertEquals(1_000_000_002L, timeSource.epochNanos());
+        assertEquals(1_000_000_002L, timeSource.nanoTime());
+    }
+
+    @Test
+    void shouldNotLoseTimeWhenAdvancedFromManyThreads() throws InterruptedException {
+        Clock clock = Clock.fixed(Instant.EPOCH, ZoneId.systemDefault());
+        MovableTimeSource timeSource = Haste.TimeSource.withFixedClock(clock);
+        var threads = new ArrayList<Thread>();
+
+        for (int i = 0; i < 8; i++) {
+            var thread = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    timeSource.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80_000, timeSource.currentTimeMillis());
+    }
+
 }
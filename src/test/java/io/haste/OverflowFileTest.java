@@ -0,0 +1,294 @@
+package io.haste;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OverflowFileTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+
+    private Path directory;
+    private Path file;
+    private TaskRegistry registry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("haste");
+        file = directory.resolve("timers.bin");
+        registry = new TaskRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (Path path : filesInDirectory()) {
+            Files.deleteIfExists(path);
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    void shouldRunTasksFromFileInDeadlineOrder() {
+        var order = new ArrayList<String>();
+        registry.register("a", () -> order.add("a"));
+        registry.register("b", () -> order.add("b"));
+        var executorService = Haste.ScheduledExecutionService.withOverflowFile(CLOCK, registry, file, Duration.ofDays(1));
+
+        executorService.schedule(registry.task("b"), 400, TimeUnit.DAYS);
+        executorService.schedule(registry.task("a"), 30, TimeUnit.DAYS);
+        executorService.schedule(() -> order.add("unregistered"), 100, TimeUnit.DAYS);
+        executorService.schedule(registry.task("a"), 400, TimeUnit.DAYS);
+        executorService.schedule(registry.task("b"), 1, TimeUnit.HOURS);
+
+        assertEquals(5, executorService.pendingTaskCount());
+        executorService.advanceTimeBy(Duration.ofDays(365));
+        assertEquals(List.of("b", "a", "unregistered"), order);
+        executorService.advanceTimeBy(Duration.ofDays(365));
+        assertEquals(List.of("b", "a", "unregistered", "b", "a"), order);
+        assertEquals(0, executorService.pendingTaskCount());
+    }
+
+    @Test
+    void shouldRunTasksAtTheirDeadlines() {
+        var runTimes = new ArrayList<Instant>();
+        var executorService = Haste.ScheduledExecutionService.withOverflowFile(CLOCK, registry, file, Duration.ofHours(1));
+        registry.register("record", () -> runTimes.add(executorService.instant()));
+
+        executorService.schedule(registry.task("record"), 90, TimeUnit.DAYS);
+        executorService.advanceTimeBy(Duration.ofDays(89));
+        assertTrue(runTimes.isEmpty());
+        executorService.advanceTimeBy(Duration.ofDays(1));
+
+        assertEquals(List.of(Instant.EPOCH.plus(Duration.ofDays(90))), runTimes);
+    }
+
+    @Test
+    void shouldNotRunTaskCancelledInFile() {
+        var counter = new AtomicInteger();
+        registry.register("count", counter::incrementAndGet);
+        var executorService = Haste.ScheduledExecutionService.withOverflowFile(CLOCK, registry, file, Duration.ofDays(1));
+
+        var cancelled = executorService.schedule(registry.task("count"), 10, TimeUnit.DAYS);
+        executorService.schedule(registry.task("count"), 10, TimeUnit.DAYS);
+        assertTrue(cancelled.cancel(false));
+        assertEquals(1, executorService.pendingTaskCount());
+        executorService.advanceTimeBy(Duration.ofDays(20));
+
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    void shouldRunPeriodicTaskForYears() {
+        var counter = new AtomicInteger();
+        registry.register("daily", counter::incrementAndGet);
+        var executorService = Haste.ScheduledExecutionService.withOverflowFile(CLOCK, registry, file, Duration.ofHours(6));
+
+        executorService.scheduleAtFixedRate(registry.task("daily"), 1, 1, TimeUnit.DAYS);
+        executorService.advanceTimeBy(Duration.ofDays(3 * 365));
+
+        assertEquals(3 * 365, counter.get());
+        assertEquals(1, executorService.pendingTaskCount());
+    }
+
+    @Test
+    void shouldStopRegisteredPeriodicTaskOnCancel() {
+        var counter = new AtomicInteger();
+        registry.register("renewal", counter::incrementAndGet);
+        var executorService = Haste.ScheduledExecutionService.withOverflowFile(CLOCK, registry, file, Duration.ofDays(1));
+
+        var renewal = executorService.scheduleAtFixedRate(registry.task("renewal"), 30, 30, TimeUnit.DAYS);
+        executorService.advanceTimeBy(Duration.ofDays(65));
+        assertTrue(renewal.cancel(false));
+        executorService.advanceTimeBy(Duration.ofDays(365));
+
+        assertEquals(2, counter.get());
+        assertThrows(CancellationException.class, renewal::get);
+    }
+
+    @Test
+    void shouldCompleteFutureOfTaskRunFromFile() throws Exception {
+        var counter = new AtomicInteger();
+        registry.register("count", counter::incrementAndGet);
+        var executorService = Haste.ScheduledExecutionService.withOverflowFile(CLOCK, registry, file, Duration.ofDays(1));
+
+        var schedule = executorService.schedule(registry.task("count"), 10, TimeUnit.DAYS);
+        executorService.advanceTimeBy(Duration.ofDays(20));
+
+        assertEquals(1, counter.get());
+        assertTrue(schedule.isDone());
+        assertNull(schedule.get(1, TimeUnit.SECONDS));
+        assertFalse(schedule.cancel(false));
+    }
+
+    @Test
+    void shouldWakeWaiterOfTaskInFile() throws Exception {
+        registry.register("empty", () -> {
+        });
+        var executorService = Haste.ScheduledExecutionService.withOverflowFile(CLOCK, registry, file, Duration.ofDays(1));
+        var schedule = executorService.schedule(registry.task("empty"), 10, TimeUnit.DAYS);
+
+        var waiter = CompletableFuture.runAsync(() -> {
+            try {
+                schedule.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(20);
+        executorService.advanceTimeBy(Duration.ofDays(20));
+
+        waiter.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldReportFailureOfTaskRunFromFile() {
+        var failure = new IllegalStateException();
+        registry.register("fail", () -> {
+            throw failure;
+        });
+        var executorService = Haste.ScheduledExecutionService.withOverflowFile(CLOCK, registry, file, Duration.ofDays(1));
+        var schedule = executorService.schedule(registry.task("fail"), 10, TimeUnit.DAYS);
+
+        assertFalse(schedule.isDone());
+        assertThrows(IllegalStateException.class, () -> executorService.advanceTimeBy(Duration.ofDays(20)));
+
+        var exception = assertThrows(ExecutionException.class, schedule::get);
+        assertSame(failure, exception.getCause());
+    }
+
+    @Test
+    void shouldKeepFailureOfTaskRunFromFileUntilFutureIsChecked() {
+        var failure = new IllegalStateException();
+        registry.register("fail", () -> {
+            throw failure;
+        });
+        registry.register("empty", () -> {
+        });
+        var executorService = Haste.ScheduledExecutionService.withOverflowFile(CLOCK, registry, file, Duration.ofDays(1));
+        var schedule = executorService.schedule(registry.task("fail"), 10, TimeUnit.DAYS);
+        for (int i = 0; i < 200; i++) {
+            executorService.schedule(registry.task("empty"), 11, TimeUnit.DAYS);
+        }
+
+        assertThrows(IllegalStateException.class, () -> executorService.advanceTimeBy(Duration.ofDays(11)));
+        executorService.advanceTimeBy(Duration.ofDays(1));
+
+        var exception = assertThrows(ExecutionException.class, schedule::get);
+        assertSame(failure, exception.getCause());
+    }
+
+    @Test
+    void shouldCancelTaskLoadedBackFromFile() {
+        var counter = new AtomicInteger();
+        registry.register("count", counter::incrementAndGet);
+        var executorService = Haste.ScheduledExecutionService.withOverflowFile(CLOCK, registry, file, Duration.ofDays(1));
+
+        var schedule = executorService.schedule(registry.task("count"), 10 * 24 + 12, TimeUnit.HOURS);
+        executorService.advanceTimeBy(Duration.ofDays(10));
+        assertEquals(1, executorService.pendingTaskCount());
+        assertTrue(schedule.cancel(false));
+        executorService.advanceTimeBy(Duration.ofDays(10));
+
+        assertEquals(0, counter.get());
+        assertTrue(schedule.isCancelled());
+        assertEquals(0, executorService.pendingTaskCount());
+    }
+
+    @Test
+    void shouldKeepManyTasksInSchedulingOrder() throws IOException {
+        var order = new ArrayList<Integer>();
+        var executorService = Haste.ScheduledExecutionService.withOverflowFile(CLOCK, registry, file, Duration.ofDays(1));
+        int count = 10_000;
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            registry.register("task" + i, () -> order.add(index));
+        }
+
+        for (int i = 0; i < count; i++) {
+            executorService.schedule(registry.task("task" + i), 100 + i % 7, TimeUnit.DAYS);
+        }
+        assertTrue(Files.size(file) > 0);
+        executorService.advanceTimeBy(Duration.ofDays(200));
+
+        assertEquals(count, order.size());
+        for (int i = 1; i < count; i++) {
+            int previous = order.get(i - 1);
+            int current = order.get(i);
+            assertTrue(previous % 7 < current % 7 || (previous % 7 == current % 7 && previous < current));
+        }
+    }
+
+    @Test
+    void shouldKeepWritingToFileAfterRestore() throws IOException {
+        var counter = new AtomicInteger();
+        registry.register("count", counter::incrementAndGet);
+        var executorService = Haste.ScheduledExecutionService.withOverflowFile(CLOCK, registry, file, Duration.ofDays(1));
+        var snapshot = executorService.snapshot();
+
+        var dropped = executorService.schedule(registry.task("count"), 10, TimeUnit.DAYS);
+        executorService.restore(snapshot);
+        executorService.schedule(registry.task("count"), 20, TimeUnit.DAYS);
+
+        var files = filesInDirectory();
+        assertEquals(2, files.size());
+        files.remove(file);
+        assertTrue(Files.size(files.get(0)) > 0);
+        assertThrows(CancellationException.class, dropped::get);
+        executorService.advanceTimeBy(Duration.ofDays(30));
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    void shouldCloseFilesOnShutdown() throws IOException {
+        registry.register("empty", () -> {
+        });
+        var executorService = Haste.ScheduledExecutionService.withOverflowFile(CLOCK, registry, file, Duration.ofDays(1));
+        var fork = executorService.fork(executorService.snapshot());
+        var dropped = fork.schedule(registry.task("empty"), 10, TimeUnit.DAYS);
+
+        fork.shutdown();
+        executorService.shutdown();
+
+        assertEquals(List.of(file), filesInDirectory());
+        Files.delete(file);
+        assertThrows(CancellationException.class, dropped::get);
+        assertEquals(0, fork.pendingTaskCount());
+    }
+
+    @Test
+    void shouldNotRegisterTaskTwice() {
+        Runnable task = () -> {
+        };
+        registry.register("task", task);
+
+        assertThrows(IllegalArgumentException.class, () -> registry.register("task", () -> {
+        }));
+        assertThrows(IllegalArgumentException.class, () -> registry.register("other", task));
+    }
+
+    private List<Path> filesInDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+}
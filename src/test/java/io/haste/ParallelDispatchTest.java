@@ -0,0 +1,111 @@
+package io.haste;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelDispatchTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneId.systemDefault());
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void shouldRunTasksWithTheSameDeadlineInParallel() {
+        var executorService = Haste.ScheduledExecutionService.withParallelDispatch(CLOCK, pool);
+        var barrier = new CyclicBarrier(4);
+        var passed = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++) {
+            executorService.schedule(() -> {
+                barrier.await(5, TimeUnit.SECONDS);
+                return passed.incrementAndGet();
+            }, 1, TimeUnit.SECONDS);
+        }
+        executorService.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertEquals(4, passed.get());
+    }
+
+    @Test
+    void shouldKeepOrderOfDifferentDeadlines() {
+        var executorService = Haste.ScheduledExecutionService.withParallelDispatch(CLOCK, pool);
+        var order = new ConcurrentLinkedQueue<Integer>();
+
+        for (int i = 0; i < 10; i++) {
+            executorService.schedule(() -> order.add(2), 2, TimeUnit.SECONDS);
+            executorService.schedule(() -> order.add(1), 1, TimeUnit.SECONDS);
+            executorService.schedule(() -> order.add(3), 3, TimeUnit.SECONDS);
+        }
+        executorService.advanceTimeBy(3, TimeUnit.SECONDS);
+
+        assertEquals(List.of(1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3), List.copyOf(order));
+    }
+
+    @Test
+    void shouldRunTasksScheduledByParallelTasks() {
+        var executorService = Haste.ScheduledExecutionService.withParallelDispatch(CLOCK, pool);
+        var counter = new AtomicInteger();
+
+        for (int i = 0; i < 100; i++) {
+            executorService.schedule(() -> executorService.schedule(counter::incrementAndGet, 1, TimeUnit.SECONDS), 1, TimeUnit.SECONDS);
+        }
+        executorService.advanceTimeBy(2, TimeUnit.SECONDS);
+
+        assertEquals(100, counter.get());
+    }
+
+    @Test
+    void shouldRethrowExceptionFromParallelTask() {
+        var executorService = Haste.ScheduledExecutionService.withParallelDispatch(CLOCK, pool);
+        executorService.schedule(() -> {
+        }, 1, TimeUnit.SECONDS);
+        Runnable failing = () -> {
+            throw new IllegalStateException();
+        };
+        executorService.schedule(failing, 1, TimeUnit.SECONDS);
+
+        assertThrows(
+                IllegalStateException.class,
+                () -> executorService.advanceTimeBy(1, TimeUnit.SECONDS)
+        );
+    }
+
+    @Test
+    void shouldNotCountTasksCancelledByPeersAsRun() {
+        var executorService = Haste.ScheduledExecutionService.withParallelDispatch(CLOCK, Runnable::run);
+        var metrics = new InMemorySchedulerMetrics();
+        executorService.setMetricsListener(metrics);
+        var cancelled = new CompletableFuture<ScheduledFuture<?>>();
+        executorService.schedule(() -> cancelled.join().cancel(false), 1, TimeUnit.SECONDS);
+        cancelled.complete(executorService.schedule(() -> {
+        }, 1, TimeUnit.SECONDS));
+
+        executorService.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertEquals(1, metrics.runTasks());
+        assertEquals(1, metrics.maxRunTasksPerAdvance());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPassingNullExecutor() {
+        assertThrows(
+                NullPointerException.class,
+                () -> Haste.ScheduledExecutionService.withParallelDispatch(CLOCK, null)
+        );
+    }
+
+}
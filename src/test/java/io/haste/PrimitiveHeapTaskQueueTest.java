@@ -0,0 +1,195 @@
+package io.haste;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.haste.TaskQueueFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimitiveHeapTaskQueueTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+
+    @Test
+    void shouldPollTasksInDeadlineOrderAfterRemovals() {
+        var queue = new PrimitiveHeapTaskQueue(new TaskRegistry());
+        var random = new Random(7);
+        var tasks = new ArrayList<TestTask>();
+        for (int i = 0; i < 10_000; i++) {
+            var task = new TestTask(random.nextInt(1_000_000));
+            tasks.add(task);
+            queue.add(task);
+        }
+        Collections.shuffle(tasks, random);
+        for (TestTask task : tasks.subList(0, 5_000)) {
+            assertTrue(queue.remove(task));
+        }
+        var expected = new ArrayList<Long>();
+        tasks.subList(5_000, tasks.size()).forEach(task -> expected.add(task.deadline));
+        expected.sort(Long::compare);
+
+        assertEquals(5_000, queue.size());
+        assertEquals(expected, deadlines(pollAll(queue, Long.MAX_VALUE)));
+    }
+
+    @Test
+    void shouldPollTasksWithSameDeadlineInSequenceOrder() {
+        var queue = new PrimitiveHeapTaskQueue(new TaskRegistry());
+        var random = new Random(13);
+        var sameDeadline = new ArrayList<QueuedTask>();
+        for (int i = 0; i < 1_000; i++) {
+            queue.add(new TestTask(random.nextInt(10) + 100));
+            var task = new TestTask(50);
+            sameDeadline.add(task);
+            queue.add(task);
+        }
+
+        assertEquals(sameDeadline, pollAll(queue, Long.MAX_VALUE).subList(0, 1_000));
+    }
+
+    @Test
+    void shouldKeepSequenceOrderAfterAddingAll() {
+        var queue = new PrimitiveHeapTaskQueue(new TaskRegistry());
+        queue.add(new TestTask(0));
+        var batch = new ArrayList<TestTask>();
+        for (int i = 0; i < 10_000; i++) {
+            batch.add(new TestTask(i % 100));
+        }
+        queue.addAll(batch);
+        assertTrue(queue.remove(batch.get(500)));
+
+        var polled = pollAll(queue, Long.MAX_VALUE);
+
+        assertEquals(10_000, polled.size());
+        var expected = new ArrayList<QueuedTask>(batch);
+        expected.remove(500);
+        expected.sort(QueuedTask::compare);
+        assertEquals(expected, polled.subList(1, polled.size()));
+    }
+
+    @Test
+    void shouldNotRemoveTaskWhichIsNotQueued() {
+        var queue = new PrimitiveHeapTaskQueue(new TaskRegistry());
+        var task = new TestTask(1);
+        queue.add(task);
+        queue.pollDue(1);
+
+        assertFalse(queue.remove(task));
+        assertFalse(queue.remove(new TestTask(2)));
+        assertNull(queue.peek());
+    }
+
+    @Test
+    void shouldRunScheduledTasksInSchedulingOrder() {
+        var registry = new TaskRegistry();
+        var executorService = Haste.ScheduledExecutionService.withPrimitiveHeap(CLOCK, registry);
+        var order = new ArrayList<Integer>();
+        for (int i = 0; i < 100; i++) {
+            int id = i;
+            Runnable runnable = () -> order.add(id);
+            if (i % 2 == 0) {
+                registry.register("task" + i, runnable);
+            }
+            executorService.schedule(runnable, 1, TimeUnit.SECONDS);
+        }
+
+        executorService.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        var expected = new ArrayList<Integer>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, order);
+    }
+
+    @Test
+    void shouldNotHoldFuturesOfRegisteredOneShotTasks() throws Exception {
+        var registry = new TaskRegistry();
+        var counter = new AtomicInteger();
+        registry.register("count", counter::incrementAndGet);
+        var queue = new PrimitiveHeapTaskQueue(registry);
+        var executorService = new BlockingScheduledExecutionService(CLOCK, queue);
+
+        var schedule = executorService.schedule(registry.task("count"), 1, TimeUnit.HOURS);
+        var held = new ArrayList<QueuedTask>();
+        queue.forEach(held::add);
+
+        assertEquals(1, held.size());
+        assertNotSame(schedule, held.get(0));
+        assertFalse(schedule.isDone());
+        executorService.advanceTimeBy(1, TimeUnit.HOURS);
+        assertNull(schedule.get());
+        assertTrue(schedule.isDone());
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    void shouldSkipCancelledRegisteredTask() {
+        var registry = new TaskRegistry();
+        var counter = new AtomicInteger();
+        registry.register("count", counter::incrementAndGet);
+        var executorService = Haste.ScheduledExecutionService.withPrimitiveHeap(CLOCK, registry);
+
+        var cancelled = executorService.schedule(registry.task("count"), 1, TimeUnit.HOURS);
+        executorService.schedule(registry.task("count"), 2, TimeUnit.HOURS);
+
+        assertTrue(cancelled.cancel(false));
+        assertFalse(cancelled.cancel(false));
+        assertEquals(1, executorService.pendingTaskCount());
+        executorService.advanceTimeBy(3, TimeUnit.HOURS);
+        assertEquals(1, counter.get());
+        assertTrue(cancelled.isCancelled());
+        assertEquals(0, executorService.pendingTaskCount());
+    }
+
+    @Test
+    void shouldKeepFailureOfRegisteredTaskUntilFutureIsChecked() {
+        var registry = new TaskRegistry();
+        var failure = new IllegalStateException();
+        registry.register("fail", () -> {
+            throw failure;
+        });
+        registry.register("empty", () -> {
+        });
+        var executorService = Haste.ScheduledExecutionService.withPrimitiveHeap(CLOCK, registry);
+        var schedule = executorService.schedule(registry.task("fail"), 1, TimeUnit.HOURS);
+        for (int i = 0; i < 200; i++) {
+            executorService.schedule(registry.task("empty"), 2, TimeUnit.HOURS);
+        }
+
+        assertThrows(IllegalStateException.class, () -> executorService.advanceTimeBy(1, TimeUnit.HOURS));
+        executorService.advanceTimeBy(1, TimeUnit.HOURS);
+
+        var exception = assertThrows(ExecutionException.class, schedule::get);
+        assertSame(failure, exception.getCause());
+    }
+
+    @Test
+    void shouldNotCompleteHigherPriorityTaskScheduledForPolledInstantBeforeItRuns() {
+        var registry = new TaskRegistry();
+        var counter = new AtomicInteger();
+        registry.register("count", counter::incrementAndGet);
+        var executorService = Haste.ScheduledExecutionService.withPrimitiveHeap(CLOCK, registry);
+        var doneBeforeRun = new AtomicBoolean(true);
+        executorService.schedule(() -> {
+            var urgent = executorService.schedule(registry.task("count"), 0, TimeUnit.HOURS, 10);
+            doneBeforeRun.set(urgent.isDone());
+        }, 1, TimeUnit.HOURS);
+
+        executorService.advanceTimeBy(1, TimeUnit.HOURS);
+
+        assertFalse(doneBeforeRun.get());
+        assertEquals(1, counter.get());
+    }
+
+}
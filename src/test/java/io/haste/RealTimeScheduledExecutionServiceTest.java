@@ -0,0 +1,125 @@
+package io.haste;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RealTimeScheduledExecutionServiceTest {
+
+    private final ScheduledExecutorServiceWithTimeSource executorService = Haste.ScheduledExecutionService.realTime();
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void shouldRunScheduledCallable() throws Exception {
+        ScheduledFuture<Integer> schedule = executorService.schedule(() -> 1, 10, TimeUnit.MILLISECONDS);
+
+        assertEquals(Integer.valueOf(1), schedule.get(5, TimeUnit.SECONDS));
+        assertTrue(schedule.isDone());
+    }
+
+    @Test
+    void shouldNotDelayOtherTimersWhenTaskBlocks() throws Exception {
+        var blocking = new CountDownLatch(1);
+        executorService.schedule(() -> {
+            blocking.await();
+            return null;
+        }, 1, TimeUnit.MILLISECONDS);
+
+        ScheduledFuture<Integer> schedule = executorService.schedule(() -> 1, 20, TimeUnit.MILLISECONDS);
+
+        assertEquals(Integer.valueOf(1), schedule.get(5, TimeUnit.SECONDS));
+        blocking.countDown();
+    }
+
+    @Test
+    void shouldRunPeriodicTaskUntilCanceled() throws Exception {
+        var counter = new AtomicInteger();
+        var ranThreeTimes = new CountDownLatch(3);
+
+        ScheduledFuture<?> schedule = executorService.scheduleAtFixedRate(() -> {
+            counter.incrementAndGet();
+            ranThreeTimes.countDown();
+        }, 0, 5, TimeUnit.MILLISECONDS);
+
+        assertTrue(ranThreeTimes.await(5, TimeUnit.SECONDS));
+        assertTrue(schedule.cancel(false));
+        assertTrue(schedule.isCancelled());
+    }
+
+    @Test
+    void shouldRunTaskWithFixedDelay() throws Exception {
+        var ranThreeTimes = new CountDownLatch(3);
+
+        ScheduledFuture<?> schedule = executorService.scheduleWithFixedDelay(ranThreeTimes::countDown, 0, 5, TimeUnit.MILLISECONDS);
+
+        assertTrue(ranThreeTimes.await(5, TimeUnit.SECONDS));
+        schedule.cancel(false);
+    }
+
+    @Test
+    void shouldNotRunCanceledTask() throws Exception {
+        var counter = new AtomicInteger();
+
+        ScheduledFuture<?> schedule = executorService.schedule(counter::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+        schedule.cancel(false);
+        Thread.sleep(100);
+
+        assertEquals(0, counter.get());
+        assertThrows(CancellationException.class, schedule::get);
+    }
+
+    @Test
+    void shouldProvideCurrentTime() {
+        long before = System.currentTimeMillis();
+
+        long now = executorService.currentTimeMillis();
+
+        assertTrue(now >= before);
+    }
+
+    @Test
+    void shouldCancelPendingTasksOnShutdown() throws Exception {
+        ScheduledFuture<Integer> delayed = executorService.schedule(() -> 1, 1, TimeUnit.HOURS);
+        ScheduledFuture<?> periodic = executorService.scheduleWithFixedDelay(() -> {
+        }, 0, 1, TimeUnit.HOURS);
+
+        executorService.shutdown();
+
+        assertThrows(CancellationException.class, () -> delayed.get(5, TimeUnit.SECONDS));
+        assertThrows(CancellationException.class, () -> periodic.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldCompleteFiredTaskOnShutdown() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        ScheduledFuture<Integer> fired = executorService.schedule(() -> {
+            started.countDown();
+            release.await();
+            return 1;
+        }, 0, TimeUnit.MILLISECONDS);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        executorService.shutdown();
+        release.countDown();
+
+        assertEquals(Integer.valueOf(1), fired.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldTerminateAfterShutdown() throws Exception {
+        executorService.shutdown();
+
+        assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(executorService.isTerminated());
+    }
+
+}
@@ -0,0 +1,132 @@
+package io.haste;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScaledRealTimeTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+
+    @Test
+    void shouldMoveTimeFasterThanWallClock() throws InterruptedException {
+        var executorService = Haste.ScheduledExecutionService.scaledRealTime(CLOCK, 3600);
+        try {
+            Thread.sleep(50);
+
+            assertTrue(executorService.instant().isAfter(Instant.EPOCH.plus(Duration.ofMinutes(2))));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRunTaskWhenScaledDeadlineComes() throws InterruptedException {
+        var executorService = Haste.ScheduledExecutionService.scaledRealTime(CLOCK, 3600);
+        try {
+            var done = new CountDownLatch(1);
+            var runAt = new AtomicLong();
+            long start = System.nanoTime();
+            executorService.schedule(() -> {
+                runAt.set(System.nanoTime() - start);
+                done.countDown();
+            }, 6, TimeUnit.MINUTES);
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertTrue(runAt.get() >= TimeUnit.MILLISECONDS.toNanos(100));
+            assertFalse(executorService.instant().isBefore(Instant.EPOCH.plus(Duration.ofMinutes(6))));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldWakeUpForEarlierTaskScheduledLater() throws InterruptedException {
+        var executorService = Haste.ScheduledExecutionService.scaledRealTime(CLOCK, 3600);
+        try {
+            var done = new CountDownLatch(1);
+            executorService.schedule(() -> {
+            }, 365, TimeUnit.DAYS);
+            Thread.sleep(10);
+            executorService.schedule(done::countDown, 1, TimeUnit.MINUTES);
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldKeepRunningPeriodicTasksAfterFailure() throws InterruptedException {
+        var executorService = Haste.ScheduledExecutionService.scaledRealTime(CLOCK, 60_000);
+        try {
+            var runs = new CountDownLatch(3);
+            Runnable failing = () -> {
+                throw new IllegalStateException();
+            };
+            executorService.schedule(failing, 1, TimeUnit.SECONDS);
+            executorService.scheduleAtFixedRate(runs::countDown, 1, 1, TimeUnit.MINUTES);
+
+            assertTrue(runs.await(5, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldKeepRunningTasksAfterError() throws InterruptedException {
+        var executorService = Haste.ScheduledExecutionService.scaledRealTime(CLOCK, 60_000);
+        try {
+            var done = new CountDownLatch(1);
+            Runnable failing = () -> {
+                throw new AssertionError();
+            };
+            executorService.schedule(failing, 1, TimeUnit.SECONDS);
+            executorService.schedule(done::countDown, 1, TimeUnit.MINUTES);
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldNotRunTasksAfterShutdown() throws InterruptedException {
+        var executorService = Haste.ScheduledExecutionService.scaledRealTime(CLOCK, 3600);
+        var counter = new AtomicInteger();
+        executorService.schedule(counter::incrementAndGet, 3, TimeUnit.MINUTES);
+
+        executorService.shutdown();
+        Thread.sleep(100);
+
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    void shouldCancelPendingTasksOnShutdown() {
+        var executorService = Haste.ScheduledExecutionService.scaledRealTime(CLOCK, 3600);
+        var future = executorService.schedule(() -> {
+        }, 1, TimeUnit.DAYS);
+
+        executorService.shutdown();
+
+        assertThrows(CancellationException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    void shouldRejectSpeedFactorBelowOne() {
+        assertThrows(IllegalArgumentException.class, () -> Haste.ScheduledExecutionService.scaledRealTime(CLOCK, 0));
+    }
+
+}
@@ -0,0 +1,139 @@
+package io.haste;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchedulerMetricsTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+
+    @Test
+    void shouldCountScheduledRunAndCancelledTasks() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var metrics = new InMemorySchedulerMetrics();
+        executorService.setMetricsListener(metrics);
+
+        executorService.schedule(() -> {
+        }, 1, TimeUnit.SECONDS);
+        executorService.schedule(() -> 1, 2, TimeUnit.SECONDS);
+        executorService.schedule(() -> {
+        }, 3, TimeUnit.SECONDS).cancel(true);
+        executorService.advanceTimeBy(5, TimeUnit.SECONDS);
+
+        assertEquals(3, metrics.scheduledTasks());
+        assertEquals(2, metrics.runTasks());
+        assertEquals(1, metrics.cancelledTasks());
+        assertEquals(0, metrics.failedTasks());
+    }
+
+    @Test
+    void shouldTrackCurrentAndPeakQueueDepth() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var metrics = new InMemorySchedulerMetrics();
+        executorService.setMetricsListener(metrics);
+        Runnable task = () -> {
+        };
+
+        executorService.scheduleAll(List.of(task, task, task), new long[]{1, 2, 3}, TimeUnit.SECONDS);
+        executorService.advanceTimeBy(2, TimeUnit.SECONDS);
+
+        assertEquals(3, metrics.peakQueueDepth());
+        assertEquals(1, metrics.queueDepth());
+    }
+
+    @Test
+    void shouldReportTasksRunPerAdvanceAndTimeAdvanced() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var metrics = new InMemorySchedulerMetrics();
+        executorService.setMetricsListener(metrics);
+        for (int i = 0; i < 4; i++) {
+            executorService.schedule(() -> {
+            }, 1, TimeUnit.MINUTES);
+        }
+
+        executorService.advanceTimeBy(Duration.ofMinutes(1));
+        executorService.advanceTimeBy(Duration.ofMinutes(1));
+
+        assertEquals(2, metrics.advanceCount());
+        assertEquals(4, metrics.maxRunTasksPerAdvance());
+        assertEquals(Duration.ofMinutes(2), metrics.totalTimeAdvanced());
+    }
+
+    @Test
+    void shouldCountFailedCallablesAndRunnables() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var metrics = new InMemorySchedulerMetrics();
+        executorService.setMetricsListener(metrics);
+        Callable<Integer> failingCallable = () -> {
+            throw new IllegalStateException();
+        };
+        Runnable failingRunnable = () -> {
+            throw new IllegalStateException();
+        };
+        executorService.schedule(failingCallable, 1, TimeUnit.SECONDS);
+        executorService.schedule(failingRunnable, 2, TimeUnit.SECONDS);
+
+        assertThrows(IllegalStateException.class, () -> executorService.advanceTimeBy(3, TimeUnit.SECONDS));
+
+        assertEquals(2, metrics.failedTasks());
+        assertEquals(2, metrics.runTasks());
+    }
+
+    @Test
+    void shouldSumRunTimeByTaskClass() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var metrics = new InMemorySchedulerMetrics();
+        executorService.setMetricsListener(metrics);
+        Runnable sleeping = new SleepingTask();
+        executorService.scheduleAtFixedRate(sleeping, 0, 1, TimeUnit.SECONDS);
+
+        executorService.advanceTimeBy(2, TimeUnit.SECONDS);
+
+        assertEquals(3, metrics.runTasks());
+        assertTrue(metrics.runTimeByTaskClass().get(SleepingTask.class).compareTo(Duration.ofMillis(3)) >= 0);
+        assertTrue(metrics.runTimePercentile(50).compareTo(Duration.ofMillis(1)) >= 0);
+        assertTrue(metrics.maxRunTime().compareTo(metrics.runTimePercentile(100)) >= 0);
+    }
+
+    @Test
+    void shouldStopReportingAfterListenerIsDetached() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var metrics = new InMemorySchedulerMetrics();
+        executorService.setMetricsListener(metrics);
+        executorService.schedule(() -> {
+        }, 1, TimeUnit.SECONDS);
+
+        executorService.setMetricsListener(null);
+        executorService.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertEquals(1, metrics.scheduledTasks());
+        assertEquals(0, metrics.runTasks());
+    }
+
+    @Test
+    void shouldRejectPercentileOutOfRange() {
+        var metrics = new InMemorySchedulerMetrics();
+
+        assertThrows(IllegalArgumentException.class, () -> metrics.runTimePercentile(101));
+        assertEquals(Duration.ZERO, metrics.runTimePercentile(99));
+    }
+
+    private static class SleepingTask implements Runnable {
+
+        @Override
+        public void run() {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+}
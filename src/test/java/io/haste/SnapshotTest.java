@@ -0,0 +1,130 @@
+package io.haste;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+
+    @Test
+    void shouldCaptureTimeAndPendingTasks() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        executorService.schedule(() -> {
+        }, 1, TimeUnit.HOURS);
+        executorService.schedule(() -> {
+        }, 2, TimeUnit.HOURS).cancel(false);
+        executorService.advanceTimeBy(30, TimeUnit.MINUTES);
+
+        var snapshot = executorService.snapshot();
+
+        assertEquals(Instant.EPOCH.plus(Duration.ofMinutes(30)), snapshot.instant());
+        assertEquals(1, snapshot.pendingTaskCount());
+    }
+
+    @Test
+    void shouldRestoreTimeAndTasksInPlace() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var counter = new AtomicInteger();
+        executorService.schedule(counter::incrementAndGet, 1, TimeUnit.HOURS);
+        executorService.scheduleAtFixedRate(counter::incrementAndGet, 1, 1, TimeUnit.HOURS);
+        var snapshot = executorService.snapshot();
+
+        executorService.advanceTimeBy(3, TimeUnit.HOURS);
+        executorService.schedule(counter::incrementAndGet, 1, TimeUnit.MINUTES);
+        executorService.restore(snapshot);
+        counter.set(0);
+        executorService.advanceTimeBy(2, TimeUnit.HOURS);
+
+        assertEquals(Instant.EPOCH.plus(Duration.ofHours(2)), executorService.instant());
+        assertEquals(3, counter.get());
+    }
+
+    @Test
+    void shouldCancelAsyncFuturesDroppedByRestore() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var snapshot = executorService.snapshot();
+        var future = executorService.scheduleAsync(() -> 1, 1, TimeUnit.HOURS);
+
+        executorService.restore(snapshot);
+
+        assertTrue(future.isCancelled());
+        assertEquals(0, executorService.pendingTaskCount());
+    }
+
+    @Test
+    void shouldForkIndependentExecutors() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var runs = new ArrayList<String>();
+        executorService.schedule(() -> runs.add("shared"), 1, TimeUnit.HOURS);
+        executorService.advanceTimeBy(30, TimeUnit.MINUTES);
+        var snapshot = executorService.snapshot();
+
+        var first = executorService.fork(snapshot);
+        var second = executorService.fork(snapshot);
+        first.schedule(() -> runs.add("first"), 10, TimeUnit.MINUTES);
+        first.advanceTimeBy(1, TimeUnit.HOURS);
+        second.advanceTimeBy(10, TimeUnit.MINUTES);
+
+        assertEquals(List.of("first", "shared"), runs);
+        assertEquals(1, second.pendingTaskCount());
+        assertEquals(1, executorService.pendingTaskCount());
+        assertEquals(Instant.EPOCH.plus(Duration.ofMinutes(40)), second.instant());
+    }
+
+    @Test
+    void shouldNotLetOriginalFutureCancelForkedCopy() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var counter = new AtomicInteger();
+        var future = executorService.schedule(counter::incrementAndGet, 1, TimeUnit.HOURS);
+        var fork = executorService.fork(executorService.snapshot());
+
+        future.cancel(false);
+        fork.advanceTimeBy(1, TimeUnit.HOURS);
+
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    void shouldForkCallableAndAsyncTasks() throws Exception {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var counter = new AtomicInteger();
+        var callable = executorService.schedule(counter::incrementAndGet, 1, TimeUnit.HOURS);
+        var async = executorService.scheduleAsync(counter::incrementAndGet, 2, TimeUnit.HOURS);
+        var snapshot = executorService.snapshot();
+
+        var fork = executorService.fork(snapshot);
+        fork.advanceTimeBy(2, TimeUnit.HOURS);
+
+        assertEquals(2, counter.get());
+        assertFalse(callable.isDone());
+        assertFalse(async.isDone());
+        executorService.advanceTimeBy(2, TimeUnit.HOURS);
+        assertEquals(3, (int) callable.get());
+        assertEquals(4, (int) async.get());
+    }
+
+    @Test
+    void shouldForkTimingWheelExecutor() {
+        var executorService = Haste.ScheduledExecutionService.withTimingWheel(CLOCK, Duration.ofMillis(1));
+        var counter = new AtomicInteger();
+        executorService.scheduleWithFixedDelay(counter::incrementAndGet, 1, 1, TimeUnit.SECONDS);
+        executorService.advanceTimeBy(5, TimeUnit.SECONDS);
+
+        var fork = executorService.fork(executorService.snapshot());
+        fork.advanceTimeBy(5, TimeUnit.SECONDS);
+
+        assertEquals(10, counter.get());
+    }
+
+}
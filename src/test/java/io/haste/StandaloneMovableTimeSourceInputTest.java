@@ -3,6 +3,9 @@ package io.haste;
 import org.junit.jupiter.api.Test;
 
 import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -17,6 +20,24 @@ class StandaloneMovableTimeSourceInputTest {
         );
     }
 
+    @Test
+    void shouldThrowExceptionWhenPassingClockOutsideOfSupportedRange() {
+        var clock = Clock.fixed(Instant.parse("2300-01-01T00:00:00Z"), ZoneOffset.UTC);
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new StandaloneMovableTimeSource(clock)
+        );
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPassingNegativeDurationToAdvanceTimeBy() {
+        var timeSource = new StandaloneMovableTimeSource(Clock.systemDefaultZone());
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> timeSource.advanceTimeBy(Duration.ofSeconds(-1))
+        );
+    }
+
     @Test
     void shouldThrowExceptionWhenPassingNullDurationToAdvanceTimeBy() {
         var timeSource = new StandaloneMovableTimeSource(Clock.systemDefaultZone());
@@ -0,0 +1,123 @@
+package io.haste;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskOrderTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+    private static final List<Integer> EXPECTED = IntStream.range(0, 1_000).boxed().collect(Collectors.toList());
+
+    @Test
+    void shouldRunTasksWithSameDeadlineInSchedulingOrder() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var order = Collections.synchronizedList(new ArrayList<Integer>());
+        for (int i = 0; i < 1_000; i++) {
+            int id = i;
+            executorService.schedule(() -> order.add(id), 1 + id % 2, TimeUnit.SECONDS);
+            executorService.schedule(() -> order.add(id + 1_000), 3, TimeUnit.SECONDS);
+        }
+
+        executorService.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertEquals(EXPECTED.stream().filter(id -> id % 2 == 0).collect(Collectors.toList()), order);
+        order.clear();
+        executorService.advanceTimeBy(2, TimeUnit.SECONDS);
+
+        assertEquals(EXPECTED.stream().filter(id -> id % 2 == 1).collect(Collectors.toList()), order.subList(0, 500));
+        assertEquals(EXPECTED.stream().map(id -> id + 1_000).collect(Collectors.toList()), order.subList(500, 1_500));
+    }
+
+    @Test
+    void shouldKeepSchedulingOrderInTimingWheel() {
+        var executorService = Haste.ScheduledExecutionService.withTimingWheel(CLOCK, Duration.ofMillis(1));
+        var order = new ArrayList<Integer>();
+        for (int i = 0; i < 1_000; i++) {
+            int id = i;
+            executorService.schedule(() -> order.add(id), 5, TimeUnit.SECONDS);
+        }
+
+        executorService.advanceTimeBy(5, TimeUnit.SECONDS);
+
+        assertEquals(EXPECTED, order);
+    }
+
+    @Test
+    void shouldKeepSchedulingOrderOfBatch() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var order = new ArrayList<Integer>();
+        var runnables = new ArrayList<Runnable>();
+        for (int i = 0; i < 1_000; i++) {
+            int id = i;
+            runnables.add(() -> order.add(id));
+        }
+
+        executorService.scheduleAll(runnables, new long[1_000], TimeUnit.SECONDS);
+        executorService.advanceTimeBy(0, TimeUnit.SECONDS);
+
+        assertEquals(EXPECTED, order);
+    }
+
+    @Test
+    void shouldRunHigherPriorityFirstAmongSameDeadline() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var order = new ArrayList<String>();
+        executorService.schedule(() -> order.add("default"), 1, TimeUnit.SECONDS);
+        executorService.schedule(() -> order.add("low"), 1, TimeUnit.SECONDS, -1);
+        executorService.schedule(() -> order.add("high"), 1, TimeUnit.SECONDS, 10);
+        executorService.schedule(() -> order.add("earlier"), 500, TimeUnit.MILLISECONDS, -100);
+        executorService.schedule(() -> order.add("second high"), 1, TimeUnit.SECONDS, 10);
+
+        executorService.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertEquals(List.of("earlier", "high", "second high", "default", "low"), order);
+    }
+
+    @Test
+    void shouldHandOverSameDeadlineTasksInSchedulingOrder() {
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var executorService = Haste.ScheduledExecutionService.withParallelDispatch(CLOCK, executor);
+            var order = Collections.synchronizedList(new ArrayList<Integer>());
+            for (int i = 0; i < 1_000; i++) {
+                int id = i;
+                executorService.schedule(() -> order.add(id), 1, TimeUnit.SECONDS);
+            }
+
+            executorService.advanceTimeBy(1, TimeUnit.SECONDS);
+
+            assertEquals(EXPECTED, order);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldKeepOrderAfterRestoringSnapshot() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var order = new ArrayList<Integer>();
+        for (int i = 0; i < 100; i++) {
+            int id = i;
+            executorService.schedule(() -> order.add(id), 1, TimeUnit.SECONDS);
+        }
+        var fork = executorService.fork(executorService.snapshot());
+        fork.schedule(() -> order.add(100), 1, TimeUnit.SECONDS);
+
+        fork.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertEquals(EXPECTED.subList(0, 101), order);
+    }
+
+}
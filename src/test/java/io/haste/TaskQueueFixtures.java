@@ -0,0 +1,56 @@
+package io.haste;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tasks and helpers shared by tests of {@link TaskQueue} implementations
+ */
+final class TaskQueueFixtures {
+
+    private static final AtomicLong SEQUENCES = new AtomicLong();
+
+    private TaskQueueFixtures() {
+    }
+
+    static List<QueuedTask> pollAll(TaskQueue queue, long time) {
+        var polled = new ArrayList<QueuedTask>();
+        QueuedTask task;
+        while ((task = queue.pollDue(time)) != null) {
+            polled.add(task);
+        }
+        return polled;
+    }
+
+    static List<Long> pollDeadlines(TaskQueue queue, long time) {
+        return deadlines(pollAll(queue, time));
+    }
+
+    static List<Long> deadlines(List<? extends QueuedTask> tasks) {
+        var deadlines = new ArrayList<Long>();
+        tasks.forEach(task -> deadlines.add(task.deadline));
+        return deadlines;
+    }
+
+    /**
+     * Never cancelled task, tasks with the same deadline are polled in creation order
+     */
+    static class TestTask extends QueuedTask {
+
+        TestTask(long deadline) {
+            super(deadline);
+            this.sequence = SEQUENCES.getAndIncrement();
+        }
+
+        @Override
+        boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        void run() {
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+package io.haste;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickPublisherTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+
+    @Test
+    void shouldEmitTicksAsTimeIsMoved() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        executorService.ticks(Duration.ofSeconds(1), TickOverflowPolicy.DROP).subscribe(subscriber);
+        executorService.advanceTimeBy(Duration.ofSeconds(3));
+
+        assertEquals(List.of(Instant.ofEpochSecond(1), Instant.ofEpochSecond(2), Instant.ofEpochSecond(3)), subscriber.ticks);
+    }
+
+    @Test
+    void shouldDropTicksWithoutDemand() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var subscriber = new RecordingSubscriber(1);
+
+        executorService.ticks(Duration.ofSeconds(1), TickOverflowPolicy.DROP).subscribe(subscriber);
+        executorService.advanceTimeBy(Duration.ofSeconds(3));
+        subscriber.subscription.request(1);
+        executorService.advanceTimeBy(Duration.ofSeconds(1));
+
+        assertEquals(List.of(Instant.ofEpochSecond(1), Instant.ofEpochSecond(4)), subscriber.ticks);
+    }
+
+    @Test
+    void shouldKeepOnlyLatestTickWithoutDemand() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var subscriber = new RecordingSubscriber(1);
+
+        executorService.ticks(Duration.ofSeconds(1), TickOverflowPolicy.KEEP_LATEST).subscribe(subscriber);
+        executorService.advanceTimeBy(Duration.ofSeconds(3));
+        subscriber.subscription.request(2);
+
+        assertEquals(List.of(Instant.ofEpochSecond(1), Instant.ofEpochSecond(3)), subscriber.ticks);
+    }
+
+    @Test
+    void shouldStopTickingAfterCancel() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        executorService.ticks(Duration.ofSeconds(1), TickOverflowPolicy.DROP).subscribe(subscriber);
+        executorService.advanceTimeBy(Duration.ofSeconds(1));
+        subscriber.subscription.cancel();
+        executorService.advanceTimeBy(Duration.ofSeconds(5));
+
+        assertEquals(1, subscriber.ticks.size());
+        assertEquals(0, executorService.pendingTaskCount());
+    }
+
+    @Test
+    void shouldSignalErrorOnNonPositiveRequest() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        var subscriber = new RecordingSubscriber(0);
+
+        executorService.ticks(Duration.ofSeconds(1), TickOverflowPolicy.DROP).subscribe(subscriber);
+        subscriber.subscription.request(0);
+        executorService.advanceTimeBy(Duration.ofSeconds(1));
+
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertTrue(subscriber.ticks.isEmpty());
+    }
+
+    @Test
+    void shouldRejectNonPositivePeriod() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+
+        assertThrows(IllegalArgumentException.class, () -> executorService.ticks(Duration.ZERO, TickOverflowPolicy.DROP));
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<Instant> {
+
+        private final long initialRequest;
+        private final List<Instant> ticks = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private Throwable error;
+
+        private RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(Instant tick) {
+            ticks.add(tick);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+}
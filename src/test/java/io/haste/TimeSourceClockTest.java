@@ -0,0 +1,68 @@
+package io.haste;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeSourceClockTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneId.of("Europe/Berlin"));
+
+    @Test
+    void shouldFollowMovedTime() {
+        MovableTimeSource timeSource = Haste.TimeSource.withFixedClock(CLOCK);
+        Clock clock = timeSource.asClock();
+
+        timeSource.advanceTimeBy(1, TimeUnit.HOURS);
+
+        assertEquals(3_600_000, clock.millis());
+        assertEquals(Instant.EPOCH.plusSeconds(3600), clock.instant());
+        assertEquals(ZoneId.of("Europe/Berlin"), clock.getZone());
+    }
+
+    @Test
+    void shouldFollowTimeMovedByExecutor() {
+        var executorService = Haste.ScheduledExecutionService.withFixedClock(CLOCK);
+        Clock clock = executorService.asClock();
+
+        executorService.advanceTimeBy(Duration.ofMinutes(5));
+
+        assertEquals(ZonedDateTime.now(CLOCK).plusMinutes(5), ZonedDateTime.now(clock));
+    }
+
+    @Test
+    void shouldChangeZoneOfView() {
+        MovableTimeSource timeSource = Haste.TimeSource.withFixedClock(CLOCK);
+
+        Clock clock = timeSource.asClock().withZone(ZoneOffset.UTC);
+        timeSource.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertEquals(ZoneOffset.UTC, clock.getZone());
+        assertEquals(1000, clock.millis());
+    }
+
+    @Test
+    void shouldUseZoneOfNowByDefault() {
+        ZonedDateTime now = ZonedDateTime.ofInstant(Instant.EPOCH, ZoneId.of("Asia/Tokyo"));
+        TimeSource timeSource = new TimeSource() {
+            @Override
+            public ZonedDateTime now() {
+                return now;
+            }
+
+            @Override
+            public long currentTimeMillis() {
+                return 0;
+            }
+        };
+
+        Clock clock = timeSource.asClock();
+
+        assertEquals(ZoneId.of("Asia/Tokyo"), clock.getZone());
+        assertEquals(Instant.EPOCH, clock.instant());
+    }
+
+}
@@ -0,0 +1,120 @@
+package io.haste;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.haste.TaskQueueFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTaskQueueTest {
+
+    @Test
+    void shouldPollTasksInDeadlineOrder() {
+        var queue = new TimingWheelTaskQueue(1_000_000);
+        var random = new Random(42);
+        var deadlines = new ArrayList<Long>();
+        for (int i = 0; i < 10_000; i++) {
+            long deadline = random.nextInt(5) == 0 ? random.nextLong() : random.nextInt(1_000_000_000);
+            deadlines.add(deadline);
+            queue.add(new TestTask(deadline));
+        }
+        deadlines.sort(Long::compare);
+
+        var polled = pollDeadlines(queue, Long.MAX_VALUE);
+
+        assertEquals(deadlines, polled);
+    }
+
+    @Test
+    void shouldNotPollTasksAfterGivenTime() {
+        var queue = new TimingWheelTaskQueue(1_000);
+        queue.add(new TestTask(1_500));
+        queue.add(new TestTask(2_500));
+        queue.add(new TestTask(1_000_000));
+
+        assertEquals(List.of(1_500L), pollDeadlines(queue, 2_000));
+        assertEquals(List.of(2_500L), pollDeadlines(queue, 999_999));
+        assertEquals(List.of(1_000_000L), pollDeadlines(queue, 1_000_000));
+    }
+
+    @Test
+    void shouldPollTasksAddedBeforeCurrentTick() {
+        var queue = new TimingWheelTaskQueue(1_000);
+        queue.add(new TestTask(1_000_000));
+        assertNull(queue.pollDue(500_000));
+
+        queue.add(new TestTask(600_000));
+
+        assertEquals(List.of(600_000L, 1_000_000L), pollDeadlines(queue, 1_000_000));
+    }
+
+    @Test
+    void shouldPeekWithoutMovingCursor() {
+        var queue = new TimingWheelTaskQueue(1_000);
+        var later = new TestTask(90_000_000);
+        var earliest = new TestTask(80_000_000);
+        queue.add(later);
+        queue.add(earliest);
+
+        assertSame(earliest, queue.peek());
+        var shortTimeout = new TestTask(5_000);
+        queue.add(shortTimeout);
+
+        assertTrue(shortTimeout.queueIndex >= 0);
+        assertSame(shortTimeout, queue.peek());
+        assertTrue(queue.remove(shortTimeout));
+        assertSame(earliest, queue.peek());
+        assertEquals(List.of(80_000_000L, 90_000_000L), pollDeadlines(queue, Long.MAX_VALUE));
+    }
+
+    @Test
+    void shouldRemoveTaskFromTimingWheel() {
+        var queue = new TimingWheelTaskQueue(1_000);
+        var first = new TestTask(5_000);
+        var second = new TestTask(5_100);
+        var third = new TestTask(90_000_000);
+        queue.add(first);
+        queue.add(second);
+        queue.add(third);
+
+        assertTrue(queue.remove(second));
+        assertTrue(queue.remove(third));
+        assertFalse(queue.remove(third));
+
+        assertEquals(1, queue.size());
+        assertEquals(List.of(5_000L), pollDeadlines(queue, Long.MAX_VALUE));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPassingNonPositiveTick() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new TimingWheelTaskQueue(0)
+        );
+    }
+
+    @Test
+    void shouldExecuteScheduledJobsWithTimingWheel() {
+        var counter = new AtomicInteger();
+        var clock = Clock.fixed(Instant.EPOCH, ZoneId.systemDefault());
+        var executorService = Haste.ScheduledExecutionService.withTimingWheel(clock, Duration.ofMillis(1));
+
+        executorService.schedule(counter::incrementAndGet, 10, TimeUnit.MILLISECONDS);
+        executorService.schedule(counter::incrementAndGet, 3, TimeUnit.DAYS);
+        executorService.scheduleAtFixedRate(counter::incrementAndGet, 1, 1, TimeUnit.SECONDS);
+        executorService.advanceTimeBy(1, TimeUnit.MINUTES);
+
+        assertEquals(61, counter.get());
+        assertEquals(60_000, executorService.currentTimeMillis());
+    }
+
+}
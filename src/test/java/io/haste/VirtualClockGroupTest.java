@@ -0,0 +1,146 @@
+package io.haste;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualClockGroupTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldRunTasksOfAllMembersInGlobalDeadlineOrder() {
+        var group = Haste.ScheduledExecutionService.virtualClockGroup(CLOCK, executor);
+        var first = group.newMember();
+        var second = group.newMember();
+        var events = Collections.synchronizedList(new ArrayList<String>());
+        first.schedule(() -> events.add("first@1"), 1, TimeUnit.SECONDS);
+        second.schedule(() -> events.add("second@2"), 2, TimeUnit.SECONDS);
+        first.schedule(() -> events.add("first@3"), 3, TimeUnit.SECONDS);
+
+        group.advanceTimeBy(Duration.ofSeconds(5));
+
+        assertEquals(List.of("first@1", "second@2", "first@3"), events);
+        assertEquals(Instant.ofEpochSecond(5), group.instant());
+        assertEquals(Instant.ofEpochSecond(5), first.instant());
+        assertEquals(Instant.ofEpochSecond(5), second.instant());
+    }
+
+    @Test
+    void shouldDeliverCrossMemberMessagesAtTheirTimestamps() {
+        var group = Haste.ScheduledExecutionService.virtualClockGroup(CLOCK, executor);
+        var sender = group.newMember();
+        var receiver = group.newMember();
+        var receivedAt = Collections.synchronizedList(new ArrayList<Instant>());
+        sender.schedule(() -> receiver.schedule(() -> receivedAt.add(receiver.instant()), 100, TimeUnit.MILLISECONDS), 1, TimeUnit.SECONDS);
+        sender.schedule(() -> receiver.schedule(() -> receivedAt.add(receiver.instant()), 0, TimeUnit.MILLISECONDS), 2, TimeUnit.SECONDS);
+
+        group.advanceTimeBy(Duration.ofSeconds(3));
+
+        assertEquals(List.of(Instant.ofEpochMilli(1_100), Instant.ofEpochMilli(2_000)), receivedAt);
+    }
+
+    @Test
+    void shouldRunSameInstantWorkOfMembersInParallel() {
+        var group = Haste.ScheduledExecutionService.virtualClockGroup(CLOCK, executor);
+        var bothRunning = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            group.newMember().schedule(() -> {
+                bothRunning.countDown();
+                try {
+                    assertTrue(bothRunning.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, 1, TimeUnit.SECONDS);
+        }
+
+        group.advanceTimeBy(Duration.ofSeconds(1));
+
+        assertEquals(0, bothRunning.getCount());
+    }
+
+    @Test
+    void shouldRunSameInstantWorkScheduledDuringRoundInNextRound() {
+        var group = Haste.ScheduledExecutionService.virtualClockGroup(CLOCK, executor);
+        var sender = group.newMember();
+        var receiver = group.newMember();
+        var sent = new CountDownLatch(1);
+        var senderFinished = new AtomicBoolean();
+        var receivedAfterSenderFinished = new AtomicBoolean();
+        sender.schedule(() -> {
+            receiver.schedule(() -> receivedAfterSenderFinished.set(senderFinished.get()), 0, TimeUnit.SECONDS);
+            sent.countDown();
+            Thread.sleep(50);
+            senderFinished.set(true);
+            return null;
+        }, 1, TimeUnit.SECONDS);
+        receiver.schedule(() -> {
+            sent.await();
+            return null;
+        }, 1, TimeUnit.SECONDS);
+
+        group.advanceTimeBy(Duration.ofSeconds(1));
+
+        assertTrue(receivedAfterSenderFinished.get());
+    }
+
+    @Test
+    void shouldRethrowFailureOfMember() {
+        var group = Haste.ScheduledExecutionService.virtualClockGroup(CLOCK, executor);
+        Runnable failing = () -> {
+            throw new IllegalStateException();
+        };
+        group.newMember().schedule(failing, 1, TimeUnit.SECONDS);
+        group.newMember().schedule(() -> {
+        }, 1, TimeUnit.SECONDS);
+
+        assertThrows(IllegalStateException.class, () -> group.advanceTimeBy(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void shouldProvideEarliestDeadlineOfAllMembers() {
+        var group = Haste.ScheduledExecutionService.virtualClockGroup(CLOCK, executor);
+        group.newMember().schedule(() -> {
+        }, 3, TimeUnit.SECONDS);
+        group.newMember().schedule(() -> {
+        }, 2, TimeUnit.SECONDS);
+
+        assertEquals(Optional.of(ZonedDateTime.now(CLOCK).plusSeconds(2)), group.nextDeadline());
+        assertEquals(2, group.members().size());
+    }
+
+    @Test
+    void shouldStartNewMemberAtCurrentGroupTime() {
+        var group = Haste.ScheduledExecutionService.virtualClockGroup(CLOCK, executor);
+        group.advanceTimeBy(1, TimeUnit.HOURS);
+
+        var member = group.newMember();
+
+        assertEquals(group.now(), member.now());
+    }
+
+}